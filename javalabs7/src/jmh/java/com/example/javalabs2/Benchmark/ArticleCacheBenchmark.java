@@ -0,0 +1,86 @@
+package com.example.javalabs2.Benchmark;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Entity.Article;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ArticleCacheBenchmark {
+
+    @Param({"10000"})
+    private int maxEntries;
+
+    @Param({"100000"})
+    private int keySpace;
+
+    private ArticleCache cache;
+    private Article[] articles;
+
+    @Setup
+    public void setUp() {
+        cache = new ArticleCache(maxEntries, 0, 0);
+        articles = new Article[keySpace];
+        for (int i = 0; i < keySpace; i++) {
+            Article article = new Article();
+            article.setId((long) i);
+            article.setTitle("Title " + i);
+            article.setContent("Content of article " + i);
+            articles[i] = article;
+            if (i < maxEntries) {
+                cache.putArticle(article);
+            }
+        }
+    }
+
+    @Benchmark
+    public Article getHit() {
+        return cache.getArticleById((long) ThreadLocalRandom.current().nextInt(maxEntries));
+    }
+
+    @Benchmark
+    public Article getSkewed() {
+        long id = (long) Math.abs(ThreadLocalRandom.current().nextGaussian() * keySpace / 8) % keySpace;
+        return cache.getArticleById(id);
+    }
+
+    @Benchmark
+    public void put() {
+        cache.putArticle(articles[ThreadLocalRandom.current().nextInt(keySpace)]);
+    }
+
+    @Benchmark
+    public Article mixedReadWriteRemove() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(keySpace);
+        int op = random.nextInt(10);
+        if (op == 0) {
+            cache.removeArticle((long) index);
+            return null;
+        }
+        if (op == 1) {
+            cache.putArticle(articles[index]);
+            return null;
+        }
+        return cache.getArticleById((long) index);
+    }
+}
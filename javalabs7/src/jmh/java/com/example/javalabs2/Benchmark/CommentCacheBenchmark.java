@@ -0,0 +1,90 @@
+package com.example.javalabs2.Benchmark;
+
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class CommentCacheBenchmark {
+
+    @Param({"100000"})
+    private int commentCount;
+
+    @Param({"1000"})
+    private int articleCount;
+
+    @Param({"500"})
+    private int authorCount;
+
+    private CommentCache cache;
+    private Comment[] comments;
+
+    @Setup
+    public void setUp() {
+        cache = new CommentCache();
+        Article[] articles = new Article[articleCount];
+        for (int i = 0; i < articleCount; i++) {
+            articles[i] = new Article();
+            articles[i].setId((long) i);
+        }
+        comments = new Comment[commentCount];
+        for (int i = 0; i < commentCount; i++) {
+            Comment comment = new Comment();
+            comment.setId((long) i);
+            comment.setAuthor("Author " + (i % authorCount));
+            comment.setText("Comment text " + i);
+            comment.setArticle(articles[i % articleCount]);
+            comments[i] = comment;
+            cache.putComment(comment);
+        }
+    }
+
+    @Benchmark
+    public Comment getById() {
+        return cache.getCommentById((long) ThreadLocalRandom.current().nextInt(commentCount));
+    }
+
+    @Benchmark
+    public List<Comment> getByArticle() {
+        return cache.getCommentsByArticle((long) ThreadLocalRandom.current().nextInt(articleCount));
+    }
+
+    @Benchmark
+    public List<Comment> getByAuthor() {
+        return cache.getCommentsByAuthor("author " + ThreadLocalRandom.current().nextInt(authorCount));
+    }
+
+    @Benchmark
+    public void rePut() {
+        cache.putComment(comments[ThreadLocalRandom.current().nextInt(commentCount)]);
+    }
+
+    @Benchmark
+    public void removeAndPut() {
+        Comment comment = comments[ThreadLocalRandom.current().nextInt(commentCount)];
+        cache.removeComment(comment.getId());
+        cache.putComment(comment);
+    }
+}
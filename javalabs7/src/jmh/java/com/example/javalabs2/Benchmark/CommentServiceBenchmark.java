@@ -0,0 +1,87 @@
+package com.example.javalabs2.Benchmark;
+
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Cache.IdFilter;
+import com.example.javalabs2.Cache.SecondLevelCache;
+import com.example.javalabs2.Dto.CommentDto;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Repository.CommentRepository;
+import com.example.javalabs2.Service.CommentIngestService;
+import com.example.javalabs2.Service.CommentService;
+import com.example.javalabs2.Service.RequestCounter;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Measures the service-layer search path with an in-memory repository stub, so the numbers reflect
+ * cache lookups, filtering and counters rather than database latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class CommentServiceBenchmark {
+
+    @Param({"100000"})
+    private int commentCount;
+
+    @Param({"1000"})
+    private int articleCount;
+
+    @Param({"500"})
+    private int authorCount;
+
+    private CommentService commentService;
+
+    @Setup
+    public void setUp() {
+        CommentCache cache = new CommentCache();
+        Article[] articles = new Article[articleCount];
+        for (int i = 0; i < articleCount; i++) {
+            articles[i] = new Article();
+            articles[i].setId((long) i);
+        }
+        for (int i = 0; i < commentCount; i++) {
+            Comment comment = new Comment();
+            comment.setId((long) i);
+            comment.setAuthor("Author " + (i % authorCount));
+            comment.setText("Comment text " + i);
+            comment.setArticle(articles[i % articleCount]);
+            cache.putComment(comment);
+        }
+        CommentRepository repository = Mockito.mock(CommentRepository.class);
+        Mockito.when(repository.findByArticleIdAndAuthorContaining(anyLong(), anyString())).thenReturn(List.of());
+        commentService = new CommentService(repository, cache, new RequestCounter(), null,
+                Mockito.mock(SecondLevelCache.class), Mockito.mock(CommentIngestService.class),
+                Mockito.mock(IdFilter.class));
+    }
+
+    @Benchmark
+    public List<CommentDto> searchComments() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return commentService.searchComments((long) random.nextInt(articleCount),
+                "Author " + random.nextInt(authorCount));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.javalabs2.Benchmark;
+
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int commentsPerArticle;
+
+    private ObjectWriter articleWriter;
+    private ObjectWriter commentWriter;
+    private Article article;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        articleWriter = objectMapper.writerFor(Article.class);
+        commentWriter = objectMapper.writerFor(Comment.class);
+        article = new Article();
+        article.setId(1L);
+        article.setTitle("Benchmark article");
+        article.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(20));
+        List<Comment> comments = new ArrayList<>(commentsPerArticle);
+        for (int i = 0; i < commentsPerArticle; i++) {
+            Comment c = new Comment();
+            c.setId((long) i);
+            c.setAuthor("Author " + i);
+            c.setText("Comment text number " + i);
+            c.setArticle(article);
+            comments.add(c);
+        }
+        article.setComments(comments);
+        comment = new Comment();
+        comment.setId(1L);
+        comment.setAuthor("Author");
+        comment.setText("Comment text");
+        comment.setArticle(article);
+    }
+
+    @Benchmark
+    public byte[] serializeArticle() throws JsonProcessingException {
+        return articleWriter.writeValueAsBytes(article);
+    }
+
+    @Benchmark
+    public byte[] serializeComment() throws JsonProcessingException {
+        return commentWriter.writeValueAsBytes(comment);
+    }
+}
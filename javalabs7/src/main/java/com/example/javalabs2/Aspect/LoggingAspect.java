@@ -1,30 +1,102 @@
 package com.example.javalabs2.Aspect;
 
+import com.example.javalabs2.Config.ConnectionHoldTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Aspect
 @Component
 public class LoggingAspect {
     private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+    private static final String LATENCY_METRIC = "app.controller.latency";
+    private static final String CONNECTION_HOLD_METRIC = "app.controller.connection.hold";
+
+    private final MeterRegistry meterRegistry;
+    private final ConnectionHoldTimer connectionHoldTimer;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final Map<Method, EndpointTimers> timers = new ConcurrentHashMap<>();
+
+    private record EndpointTimers(String name, Timer success, Timer error, Timer connectionHold) {
+    }
+
+    public LoggingAspect(MeterRegistry meterRegistry,
+                         ConnectionHoldTimer connectionHoldTimer,
+                         @Value("${logging.aspect.sample-rate:0.01}") double sampleRate,
+                         @Value("${logging.aspect.slow-threshold-ms:500}") long slowThresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.connectionHoldTimer = connectionHoldTimer;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
     @Around("execution(* com.example.javalabs2.Controller.*.*(..))")
     public Object logMethodExecution(ProceedingJoinPoint joinPoint) throws Throwable {
-        String methodName = joinPoint.getSignature().toShortString();
-        Object[] args = joinPoint.getArgs();
-        logger.info("Entering method: {} with arguments: {}", methodName, Arrays.toString(args));
+        long start = System.nanoTime();
+        long heldBefore = connectionHoldTimer.heldNanos();
         try {
             Object result = joinPoint.proceed();
-            logger.info("Exiting method: {} with result: {}", methodName, result);
+            long elapsed = System.nanoTime() - start;
+            long held = connectionHoldTimer.heldNanos() - heldBefore;
+            EndpointTimers endpoint = timersFor(joinPoint);
+            endpoint.success().record(elapsed, TimeUnit.NANOSECONDS);
+            endpoint.connectionHold().record(held, TimeUnit.NANOSECONDS);
+            if (elapsed >= slowThresholdNanos) {
+                logger.warn("Slow call: {} took {} ms, {} ms holding connections", endpoint.name(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(held));
+            } else if (logger.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                logger.info("Sampled call: {} took {} ms, {} ms holding connections", endpoint.name(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(held));
+            }
             return result;
         } catch (Throwable t) {
-            logger.error("Exception in method: {}: {}", methodName, t.getMessage(), t);
+            long elapsed = System.nanoTime() - start;
+            EndpointTimers endpoint = timersFor(joinPoint);
+            endpoint.error().record(elapsed, TimeUnit.NANOSECONDS);
+            endpoint.connectionHold().record(connectionHoldTimer.heldNanos() - heldBefore, TimeUnit.NANOSECONDS);
+            logger.error("Exception in method: {} after {} ms: {}", endpoint.name(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), t.getMessage(), t);
             throw t;
         }
     }
-}
\ No newline at end of file
+
+    private EndpointTimers timersFor(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        EndpointTimers endpoint = timers.get(method);
+        if (endpoint != null) {
+            return endpoint;
+        }
+        return timers.computeIfAbsent(method, m -> {
+            String name = m.getDeclaringClass().getSimpleName() + "." + m.getName();
+            return new EndpointTimers(name, timer(name, "success"), timer(name, "error"),
+                    Timer.builder(CONNECTION_HOLD_METRIC)
+                            .description("Time controller calls held database connections, summed per call")
+                            .tag("endpoint", name)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+        });
+    }
+
+    private Timer timer(String endpoint, String outcome) {
+        return Timer.builder(LATENCY_METRIC)
+                .description("Controller method latency")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
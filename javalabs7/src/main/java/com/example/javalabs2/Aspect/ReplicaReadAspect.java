@@ -0,0 +1,23 @@
+package com.example.javalabs2.Aspect;
+
+import com.example.javalabs2.Config.ReplicaRoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/** Lets the queries of {@link com.example.javalabs2.Config.ReplicaRead} methods go to a replica. */
+@Aspect
+@Component
+public class ReplicaReadAspect {
+
+    @Around("@annotation(com.example.javalabs2.Config.ReplicaRead)")
+    public Object allowReplicaReads(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = ReplicaRoutingDataSource.beginReplicaRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.endReplicaRead(previous);
+        }
+    }
+}
@@ -1,30 +1,101 @@
 package com.example.javalabs2.Cache;
 
 import com.example.javalabs2.Entity.Article;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
-public class ArticleCache {
-    private final Map<Long, Article> articleByIdMap = new HashMap<>();
-    private final Map<String, Article> articleByTitleMap = new HashMap<>();
+public class ArticleCache implements MeterBinder {
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int BYTES_PER_CHAR = Character.BYTES;
+
+    private final Cache<Long, Article> articleByIdMap;
+    private final Map<String, Long> articleByTitleMap = new ConcurrentHashMap<>();
+
+    public ArticleCache(@Value("${cache.article.max-entries:10000}") long maxEntries,
+                        @Value("${cache.article.max-bytes:0}") long maxBytes,
+                        @Value("${cache.article.ttl-seconds:600}") long ttlSeconds) {
+        Caffeine<Long, Article> builder = Caffeine.newBuilder()
+                .recordStats()
+                .evictionListener((Long id, Article article, RemovalCause cause) -> unindexTitle(id, article));
+        if (maxBytes > 0) {
+            builder = builder.maximumWeight(maxBytes).weigher((Long id, Article article) -> weigh(article));
+        } else {
+            builder = builder.maximumSize(maxEntries);
+        }
+        if (ttlSeconds > 0) {
+            builder = builder.expireAfterWrite(Duration.ofSeconds(ttlSeconds));
+        }
+        this.articleByIdMap = builder.build();
+    }
 
     public Article getArticleById(Long id) {
-        return articleByIdMap.get(id);
+        return articleByIdMap.getIfPresent(id);
+    }
+
+    public Article getArticleByTitle(String title) {
+        Long id = articleByTitleMap.get(title.toLowerCase());
+        return id != null ? getArticleById(id) : null;
     }
 
     public void putArticle(Article article) {
-        articleByIdMap.put(article.getId(), article);
-        articleByTitleMap.put(article.getTitle().toLowerCase(), article);
+        articleByIdMap.asMap().compute(article.getId(), (id, previous) -> {
+            if (previous != null) {
+                unindexTitle(id, previous);
+            }
+            if (article.getTitle() != null) {
+                articleByTitleMap.put(article.getTitle().toLowerCase(), id);
+            }
+            return article;
+        });
     }
 
     public void removeArticle(Long id) {
-        Article article = articleByIdMap.remove(id);
-        if (article != null) {
-            articleByTitleMap.remove(article.getTitle().toLowerCase());
+        articleByIdMap.asMap().computeIfPresent(id, (key, article) -> {
+            unindexTitle(key, article);
+            return null;
+        });
+    }
+
+    public void clear() {
+        articleByIdMap.invalidateAll();
+        articleByTitleMap.clear();
+    }
+
+    public long size() {
+        articleByIdMap.cleanUp();
+        return articleByIdMap.estimatedSize();
+    }
+
+    public CacheStats getStats() {
+        return articleByIdMap.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, articleByIdMap, "articles");
+    }
+
+    private void unindexTitle(Long id, Article article) {
+        if (article != null && article.getTitle() != null) {
+            articleByTitleMap.remove(article.getTitle().toLowerCase(), id);
         }
     }
 
-}
\ No newline at end of file
+    private static int weigh(Article article) {
+        int chars = (article.getTitle() != null ? article.getTitle().length() : 0)
+                + (article.getContent() != null ? article.getContent().length() : 0);
+        return ENTRY_OVERHEAD_BYTES + BYTES_PER_CHAR * chars;
+    }
+}
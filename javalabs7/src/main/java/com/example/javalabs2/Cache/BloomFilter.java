@@ -0,0 +1,66 @@
+package com.example.javalabs2.Cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of {@code long} keys. {@link #mightContain} never answers false for a key that
+ * was put; for other keys it answers true with about the configured probability while no more than
+ * {@code expectedInsertions} keys have been put.
+ */
+public class BloomFilter {
+    private static final double LN2 = Math.log(2);
+    private static final int WORD_SHIFT = Integer.numberOfTrailingZeros(Long.SIZE);
+    private static final long SPLITMIX_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long SPLITMIX_MUL1 = 0xBF58476D1CE4E5B9L;
+    private static final long SPLITMIX_MUL2 = 0x94D049BB133111EBL;
+    private static final int SPLITMIX_SHIFT1 = 30;
+    private static final int SPLITMIX_SHIFT2 = 27;
+    private static final int SPLITMIX_SHIFT3 = 31;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = (long) words.length() * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+    }
+
+    public void put(long key) {
+        long h1 = mix(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> WORD_SHIFT);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+
+    public boolean mightContain(long key) {
+        long h1 = mix(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> WORD_SHIFT)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** SplitMix64 finalizer: sequential IDs would otherwise set neighbouring bits. */
+    private static long mix(long value) {
+        long z = value + SPLITMIX_GAMMA;
+        z = (z ^ (z >>> SPLITMIX_SHIFT1)) * SPLITMIX_MUL1;
+        z = (z ^ (z >>> SPLITMIX_SHIFT2)) * SPLITMIX_MUL2;
+        return z ^ (z >>> SPLITMIX_SHIFT3);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.javalabs2.Cache;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Broadcasts cache invalidations to the other application instances over PostgreSQL LISTEN/NOTIFY.
+ * A notification sent inside a transaction is only delivered once it commits, so peers never evict
+ * before the change is visible to them. Disabled on any other database.
+ */
+@Component
+public class CacheInvalidationBus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final long RECONNECT_DELAY_MS = 1000;
+    private static final int STOP_WAIT_POLLS = 2;
+    /** Payloads are {@code node:cache:key}. */
+    private static final int NODE_PART = 0;
+    private static final int CACHE_PART = 1;
+    private static final int KEY_PART = 2;
+    private static final int PAYLOAD_PARTS = 3;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final int pollMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private volatile boolean running;
+    private Thread listener;
+
+    private record Subscription(Consumer<Long> onInvalidate, Runnable onReset) {
+    }
+
+    public CacheInvalidationBus(DataSource dataSource,
+                                @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+                                @Value("${cache.invalidation.poll-ms:500}") int pollMillis) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.channel = channel;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Registers handlers for invalidations of {@code cache} published by other nodes. {@code onReset}
+     * runs after the listener reconnects, since notifications sent while it was down are lost.
+     */
+    public void subscribe(String cache, Consumer<Long> onInvalidate, Runnable onReset) {
+        subscriptions.computeIfAbsent(cache, c -> new CopyOnWriteArrayList<>())
+                .add(new Subscription(onInvalidate, onReset));
+    }
+
+    public void publish(String cache, Long key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        String payload = nodeId + ":" + cache + ":" + key;
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+    }
+
+    public void publishAll(String cache, Collection<Long> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ? || k) FROM unnest(?::bigint[]) AS k", rs -> null,
+                channel, nodeId + ":" + cache + ":", keys.toArray(new Long[0]));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                LOGGER.info("Cache invalidation bus disabled: database is not PostgreSQL");
+                return;
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Cache invalidation bus disabled: {}", e.getMessage());
+            return;
+        }
+        enabled = true;
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        enabled = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener.join((long) pollMillis * STOP_WAIT_POLLS);
+        }
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnect) {
+                    resetAll();
+                }
+                reconnect = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.warn("Cache invalidation listener lost its connection, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split(":", PAYLOAD_PARTS);
+        if (parts.length != PAYLOAD_PARTS) {
+            return;
+        }
+        if (parts[NODE_PART].equals(nodeId)) {
+            return;
+        }
+        Long key;
+        try {
+            key = Long.valueOf(parts[KEY_PART]);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+        for (Subscription subscription : subscriptions.getOrDefault(parts[CACHE_PART], List.of())) {
+            try {
+                subscription.onInvalidate().accept(key);
+            } catch (RuntimeException e) {
+                LOGGER.error("Cache invalidation handler failed for {}", payload, e);
+            }
+        }
+    }
+
+    private void resetAll() {
+        subscriptions.values().forEach(list -> list.forEach(subscription -> {
+            try {
+                subscription.onReset().run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Cache reset handler failed", e);
+            }
+        }));
+    }
+}
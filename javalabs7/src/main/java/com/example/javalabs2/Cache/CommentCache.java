@@ -1,59 +1,294 @@
 package com.example.javalabs2.Cache;
 
 import com.example.javalabs2.Entity.Comment;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @Component
-public class CommentCache {
-    private final Map<Long, Comment> commentByIdMap = new HashMap<>();
-    private final Map<String, List<Comment>> commentsByAuthorMap = new HashMap<>();
-    private final Map<Long, List<Comment>> commentsByArticleMap = new HashMap<>();
+public class CommentCache implements MeterBinder {
+    private static final int GRAM = 3;
+
+    private final Map<Long, Entry> commentByIdMap = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> commentsByAuthorMap = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> commentsByArticleMap = new ConcurrentHashMap<>();
+    private final Map<ArticleAuthor, Set<Long>> commentsByArticleAuthorMap = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> authorsByTrigramMap = new ConcurrentHashMap<>();
+    private final Set<Long> loadedArticles = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray articleVersions = new AtomicLongArray(ReadThroughCache.VERSION_STRIPES);
+
+    /**
+     * Index keys are captured at put time because cached entities are mutated in place on update,
+     * so the stored comment can no longer tell us which index sets it was filed under.
+     */
+    private record Entry(Comment comment, String authorKey, Long articleId) {
+    }
+
+    private record ArticleAuthor(Long articleId, String authorKey) {
+    }
 
     public Comment getCommentById(Long id) {
-        return commentByIdMap.get(id);
+        Entry entry = commentByIdMap.get(id);
+        return entry != null ? entry.comment() : null;
     }
 
     public List<Comment> getCommentsByAuthor(String author) {
-        return commentsByAuthorMap.getOrDefault(author.toLowerCase(), new ArrayList<>());
+        return resolve(commentsByAuthorMap.get(author.toLowerCase()));
     }
 
     public List<Comment> getCommentsByArticle(Long articleId) {
-        return commentsByArticleMap.getOrDefault(articleId, new ArrayList<>());
+        return resolve(commentsByArticleMap.get(articleId));
     }
 
-    public void putComment(Comment comment) {
-        commentByIdMap.put(comment.getId(), comment);
+    /**
+     * Case-insensitive substring match on author within one article. Candidate authors come from the
+     * trigram index, so the cost follows the number of matching authors and comments rather than the
+     * size of the article. Only complete when {@link #isArticleLoaded} is true for the article.
+     */
+    public List<Comment> getCommentsByArticleAndAuthorContaining(Long articleId, String authorFilter) {
+        String needle = authorFilter.toLowerCase();
+        List<Comment> comments = new ArrayList<>();
+        for (String author : candidateAuthors(needle)) {
+            if (author.contains(needle)) {
+                resolveInto(commentsByArticleAuthorMap.get(new ArticleAuthor(articleId, author)), comments);
+            }
+        }
+        comments.sort(Comparator.comparing(Comment::getId));
+        return comments;
+    }
 
-        String authorKey = comment.getAuthor().toLowerCase();
-        commentsByAuthorMap.computeIfAbsent(authorKey, k -> new ArrayList<>()).add(comment);
+    public boolean isArticleLoaded(Long articleId) {
+        return loadedArticles.contains(articleId);
+    }
 
-        if (comment.getArticle() != null) {
-            Long articleId = comment.getArticle().getId();
-            commentsByArticleMap.computeIfAbsent(articleId, k -> new ArrayList<>()).add(comment);
+    /**
+     * Version of the comments cached for an article, bumped before any of them is stored or removed. Read
+     * it before loading the article's comments from the database and pass it to the fill.
+     */
+    public long articleVersion(Long articleId) {
+        return articleVersions.get(ReadThroughCache.stripe(articleId));
+    }
+
+    /** Caches the complete comment list of an article, loaded at {@code version}. */
+    public void putArticleComments(Long articleId, List<Comment> comments, long version) {
+        fill(articleId, comments, version, true);
+    }
+
+    /** Caches some of an article's comments, loaded at {@code version}, without marking the list complete. */
+    public void putComments(Long articleId, List<Comment> comments, long version) {
+        fill(articleId, comments, version, false);
+    }
+
+    /**
+     * Stores what a load read unless the article's comments changed since, and checks again afterwards:
+     * a write that bumped the version in between may have been overwritten, so the article is evicted. A
+     * write that bumps it later evicts what it replaces itself.
+     */
+    private void fill(Long articleId, List<Comment> comments, long version, boolean complete) {
+        if (articleVersion(articleId) != version) {
+            return;
+        }
+        comments.forEach(this::store);
+        if (complete) {
+            loadedArticles.add(articleId);
+        }
+        if (articleVersion(articleId) != version) {
+            removeCommentsByArticle(articleId);
         }
     }
 
-    public void removeComment(Long id) {
-        Comment comment = commentByIdMap.remove(id);
-        if (comment != null) {
-            String authorKey = comment.getAuthor().toLowerCase();
-            List<Comment> authorComments = commentsByAuthorMap.get(authorKey);
-            if (authorComments != null) {
-                authorComments.removeIf(c -> c.getId().equals(id));
+    public void putComment(Comment comment) {
+        bump(articleId(comment));
+        store(comment);
+    }
+
+    private void store(Comment comment) {
+        Entry entry = new Entry(comment, authorKey(comment), articleId(comment));
+        commentByIdMap.compute(comment.getId(), (id, previous) -> {
+            if (previous != null) {
+                unindex(id, previous);
             }
+            index(id, entry);
+            return entry;
+        });
+    }
+
+    public void removeComment(Long id) {
+        Entry cached = commentByIdMap.get(id);
+        if (cached != null) {
+            bump(cached.articleId());
+        }
+        commentByIdMap.computeIfPresent(id, (key, entry) -> {
+            unindex(key, entry);
+            return null;
+        });
+    }
+
+    /**
+     * Removes a comment that may still exist, e.g. after a change on another node. Unlike
+     * {@link #removeComment}, the article's cached comment list is no longer treated as complete.
+     */
+    public void evictComment(Long id) {
+        Entry entry = commentByIdMap.get(id);
+        evictComment(id, entry != null ? entry.articleId() : null);
+    }
+
+    /** Like {@link #evictComment(Long)}, for a comment of {@code articleId} that need not be cached. */
+    public void evictComment(Long id, Long articleId) {
+        if (articleId != null) {
+            bump(articleId);
+            loadedArticles.remove(articleId);
+        }
+        removeComment(id);
+    }
+
+    public void removeCommentsByArticle(Long articleId) {
+        bump(articleId);
+        loadedArticles.remove(articleId);
+        Set<Long> ids = commentsByArticleMap.get(articleId);
+        if (ids != null) {
+            List.copyOf(ids).forEach(this::removeComment);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < articleVersions.length(); i++) {
+            articleVersions.incrementAndGet(i);
+        }
+        loadedArticles.clear();
+        List.copyOf(commentByIdMap.keySet()).forEach(this::removeComment);
+    }
 
-            if (comment.getArticle() != null) {
-                Long articleId = comment.getArticle().getId();
-                List<Comment> articleComments = commentsByArticleMap.get(articleId);
-                if (articleComments != null) {
-                    articleComments.removeIf(c -> c.getId().equals(id));
+    public int size() {
+        return commentByIdMap.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cache.size", commentByIdMap, Map::size).tag("cache", "comments").register(registry);
+    }
+
+    private void bump(Long articleId) {
+        if (articleId != null) {
+            articleVersions.incrementAndGet(ReadThroughCache.stripe(articleId));
+        }
+    }
+
+    private void index(Long id, Entry entry) {
+        if (entry.authorKey() != null) {
+            // Trigram membership changes under the author's bin lock so it cannot race with the last removal.
+            commentsByAuthorMap.compute(entry.authorKey(), (author, ids) -> {
+                Set<Long> set = ids;
+                if (set == null) {
+                    set = ConcurrentHashMap.newKeySet();
+                    trigrams(author).forEach(trigram -> addToIndex(authorsByTrigramMap, trigram, author));
                 }
+                set.add(id);
+                return set;
+            });
+        }
+        if (entry.articleId() != null) {
+            addToIndex(commentsByArticleMap, entry.articleId(), id);
+        }
+        if (entry.authorKey() != null && entry.articleId() != null) {
+            addToIndex(commentsByArticleAuthorMap, new ArticleAuthor(entry.articleId(), entry.authorKey()), id);
+        }
+    }
+
+    private void unindex(Long id, Entry entry) {
+        if (entry.authorKey() != null) {
+            commentsByAuthorMap.computeIfPresent(entry.authorKey(), (author, ids) -> {
+                ids.remove(id);
+                if (!ids.isEmpty()) {
+                    return ids;
+                }
+                trigrams(author).forEach(trigram -> removeFromIndex(authorsByTrigramMap, trigram, author));
+                return null;
+            });
+        }
+        if (entry.articleId() != null) {
+            removeFromIndex(commentsByArticleMap, entry.articleId(), id);
+        }
+        if (entry.authorKey() != null && entry.articleId() != null) {
+            removeFromIndex(commentsByArticleAuthorMap, new ArticleAuthor(entry.articleId(), entry.authorKey()), id);
+        }
+    }
+
+    private Collection<String> candidateAuthors(String needle) {
+        if (needle.length() < GRAM) {
+            return commentsByAuthorMap.keySet();
+        }
+        Set<String> smallest = null;
+        for (String trigram : trigrams(needle)) {
+            Set<String> authors = authorsByTrigramMap.get(trigram);
+            if (authors == null) {
+                return Set.of();
+            }
+            if (smallest == null || authors.size() < smallest.size()) {
+                smallest = authors;
             }
         }
+        return smallest;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    private static <K, V> void addToIndex(Map<K, Set<V>> index, K key, V value) {
+        index.compute(key, (k, values) -> {
+            Set<V> set = values != null ? values : ConcurrentHashMap.newKeySet();
+            set.add(value);
+            return set;
+        });
+    }
+
+    private static <K, V> void removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    private List<Comment> resolve(Set<Long> ids) {
+        List<Comment> comments = new ArrayList<>();
+        resolveInto(ids, comments);
+        comments.sort(Comparator.comparing(Comment::getId));
+        return comments;
+    }
+
+    private void resolveInto(Set<Long> ids, List<Comment> comments) {
+        if (ids == null) {
+            return;
+        }
+        for (Long id : ids) {
+            Comment comment = getCommentById(id);
+            if (comment != null) {
+                comments.add(comment);
+            }
+        }
+    }
+
+    private static String authorKey(Comment comment) {
+        return comment.getAuthor() != null ? comment.getAuthor().toLowerCase() : null;
+    }
+
+    private static Long articleId(Comment comment) {
+        return comment.getArticle() != null ? comment.getArticle().getId() : null;
     }
-}
\ No newline at end of file
+}
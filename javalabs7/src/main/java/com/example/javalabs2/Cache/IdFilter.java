@@ -0,0 +1,241 @@
+package com.example.javalabs2.Cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filters of the article and comment IDs that exist, so lookups of IDs that were never created
+ * are answered without a query. The filters are built from an ID-only scan of the primary once the
+ * application is ready and answer "might exist" until then. A miss is answered from memory alone. New
+ * IDs are added on this instance as they are written and on the others through the
+ * {@link CacheInvalidationBus}, so another instance reports an ID missing from its creator's commit until
+ * the notification arrives, normally a few milliseconds later. While its listener reconnects, which takes
+ * at least a second, an instance may miss notifications and keep answering from its stale filter; on
+ * reconnecting it sets the filter aside until rebuilt. Deleted IDs stay in a filter, costing only
+ * the query the filter would have saved, until enough changes have accumulated that it is rebuilt in
+ * the background.
+ * <p>
+ * IDs inserted behind the application's back are reported missing until the next rebuild, so disable
+ * {@code id-filter.enabled} when other writers share the database.
+ */
+@Component
+public class IdFilter implements MeterBinder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdFilter.class);
+    private static final int FETCH_SIZE = 10_000;
+    private static final int HEADROOM_FACTOR = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate scanTransaction;
+    private final CacheInvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final long expectedIds;
+    private final double falsePositiveRate;
+    private final Ids articles;
+    private final Ids comments;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "id-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdFilter(DataSource dataSource,
+                    PlatformTransactionManager transactionManager,
+                    CacheInvalidationBus invalidationBus,
+                    @Value("${id-filter.enabled:true}") boolean enabled,
+                    @Value("${id-filter.expected-ids:1000000}") long expectedIds,
+                    @Value("${id-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        if (expectedIds < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid ID filter sizing");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // PostgreSQL only honours the fetch size inside a transaction. Not being a service transaction,
+        // it is served by the primary, so IDs the replicas have not replayed yet are not missed.
+        this.scanTransaction = new TransactionTemplate(transactionManager);
+        this.scanTransaction.setReadOnly(true);
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.expectedIds = expectedIds;
+        this.falsePositiveRate = falsePositiveRate;
+        this.articles = new Ids("article");
+        this.comments = new Ids("comment");
+    }
+
+    public Ids articles() {
+        return articles;
+    }
+
+    public Ids comments() {
+        return comments;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        articles.build();
+        comments.build();
+    }
+
+    @PreDestroy
+    public void close() {
+        rebuilder.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Ids ids : List.of(articles, comments)) {
+            FunctionCounter.builder("app.id.filter.rejected", ids.rejected, LongAdder::sum)
+                    .description("Lookups answered as missing without querying the database")
+                    .tag("entity", ids.table)
+                    .register(registry);
+        }
+    }
+
+    /** The filter of one table's IDs. */
+    public final class Ids {
+        private final String table;
+        private final String channel;
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicLong changes = new AtomicLong();
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+        private volatile BloomFilter current;
+        private volatile BloomFilter next;
+        private volatile long headroom = Long.MAX_VALUE;
+
+        private Ids(String table) {
+            this.table = table;
+            this.channel = table + "Ids";
+            invalidationBus.subscribe(channel, id -> {
+                put(List.of(id));
+                noteChanges(1);
+            }, () -> {
+                current = null;
+                rebuildLater();
+            });
+        }
+
+        /** False only if the ID was certainly never created; the caller may then skip the database. */
+        public boolean mightContain(Long id) {
+            BloomFilter filter = current;
+            if (!enabled || id == null || filter == null || filter.mightContain(id)) {
+                return true;
+            }
+            rejected.increment();
+            return false;
+        }
+
+        public void add(Long id) {
+            if (id != null) {
+                addAll(List.of(id));
+            }
+        }
+
+        /**
+         * Adds IDs being written now, so this instance finds them as soon as they commit, and again after
+         * the commit, which a rebuild running meanwhile could otherwise miss.
+         */
+        public void addAll(Collection<Long> ids) {
+            if (!enabled || ids.isEmpty()) {
+                return;
+            }
+            put(ids);
+            noteChanges(ids.size());
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        put(ids);
+                    }
+                });
+            }
+            invalidationBus.publishAll(channel, ids);
+        }
+
+        /** Counts a deletion towards the next rebuild, which is what drops the ID. */
+        public void removed(Long id) {
+            if (enabled && id != null) {
+                noteChanges(1);
+            }
+        }
+
+        private void put(Collection<Long> ids) {
+            BloomFilter filter = current;
+            if (filter != null) {
+                ids.forEach(filter::put);
+            }
+            BloomFilter building = next;
+            if (building != null && building != filter) {
+                ids.forEach(building::put);
+            }
+        }
+
+        private void noteChanges(long count) {
+            if (changes.addAndGet(count) > headroom) {
+                rebuildLater();
+            }
+        }
+
+        private void rebuildLater() {
+            if (enabled && rebuilding.compareAndSet(false, true)) {
+                rebuilder.execute(() -> {
+                    try {
+                        build();
+                    } finally {
+                        rebuilding.set(false);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Scans the IDs into a new filter sized for twice as many. IDs added during the scan go into both
+         * filters; the new one answers once the scan is complete.
+         */
+        private void build() {
+            try {
+                long start = System.nanoTime();
+                Long count = scanTransaction.execute(status ->
+                        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+                long capacity = Math.max(expectedIds, HEADROOM_FACTOR * (count != null ? count : 0));
+                BloomFilter filter = new BloomFilter(capacity, falsePositiveRate);
+                changes.set(0);
+                next = filter;
+                scanTransaction.executeWithoutResult(status ->
+                        jdbcTemplate.query("SELECT id FROM " + table, row -> {
+                            filter.put(row.getLong(1));
+                        }));
+                current = filter;
+                headroom = capacity - (count != null ? count : 0);
+                LOGGER.info("Built {} ID filter of about {} IDs in {} ms", table, count,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not build {} ID filter, keeping the previous one: {}", table, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.javalabs2.Cache;
+
+import com.example.javalabs2.Service.RequestCounter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Read-through access to one of the entity caches. Concurrent misses for the same key share a single
+ * load, and every write bumps a per-key version so a load that started before the write cannot store
+ * the value it read once the write has happened. Evictions run on both sides of the version bump, so a
+ * load that read a layer below this cache (such as Hibernate's second-level cache) just before the
+ * eviction cannot store what it read either. Writes are also published on the
+ * {@link CacheInvalidationBus} under the cache name so other instances evict the key.
+ */
+public class ReadThroughCache<V> {
+    static final int VERSION_STRIPES = 1024;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private final String name;
+    private final Function<Long, V> lookup;
+    private final BiConsumer<Long, V> store;
+    private final Consumer<Long> evict;
+    private final RequestCounter requestCounter;
+    private final CacheInvalidationBus invalidationBus;
+    private final Map<Long, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public ReadThroughCache(String name, Function<Long, V> lookup, BiConsumer<Long, V> store, Consumer<Long> evict,
+                            RequestCounter requestCounter) {
+        this(name, lookup, store, evict, () -> { }, requestCounter, null);
+    }
+
+    public ReadThroughCache(String name, Function<Long, V> lookup, BiConsumer<Long, V> store, Consumer<Long> evict,
+                            Runnable clear, RequestCounter requestCounter, CacheInvalidationBus invalidationBus) {
+        this.name = name;
+        this.lookup = lookup;
+        this.store = store;
+        this.evict = evict;
+        this.requestCounter = requestCounter;
+        this.invalidationBus = invalidationBus;
+        if (invalidationBus != null) {
+            invalidationBus.subscribe(name, this::evictLocally, clear);
+        }
+    }
+
+    public V get(Long key, Function<Long, V> loader) {
+        V cached = lookup.apply(key);
+        if (cached != null) {
+            requestCounter.cacheHit(name);
+            return cached;
+        }
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            requestCounter.cacheHit(name);
+            return join(existing);
+        }
+        try {
+            // A load that finished between our lookup and registering this one has already stored its value.
+            V value = lookup.apply(key);
+            if (value == null) {
+                requestCounter.databaseLoad(name);
+                long version = versions.get(stripe(key));
+                value = loader.apply(key);
+                if (value != null && versions.get(stripe(key)) == version) {
+                    store.accept(key, value);
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #get}: all misses are loaded with a single call to {@code loader}. Bulk
+     * loads do not join single-key loads in flight, but the version check still applies per key.
+     */
+    public Map<Long, V> getAll(Collection<Long> keys, Function<Collection<Long>, Map<Long, V>> loader) {
+        Map<Long, V> result = new LinkedHashMap<>();
+        Map<Long, Long> missVersions = new LinkedHashMap<>();
+        for (Long key : keys) {
+            V cached = lookup.apply(key);
+            if (cached != null) {
+                requestCounter.cacheHit(name);
+                result.put(key, cached);
+            } else if (!missVersions.containsKey(key)) {
+                requestCounter.databaseLoad(name);
+                missVersions.put(key, versions.get(stripe(key)));
+            }
+        }
+        if (missVersions.isEmpty()) {
+            return result;
+        }
+        Map<Long, V> loaded = loader.apply(missVersions.keySet());
+        missVersions.forEach((key, version) -> {
+            V value = loaded.get(key);
+            if (value != null) {
+                if (versions.get(stripe(key)) == version) {
+                    store.accept(key, value);
+                }
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /** Stores a value just written. Inside a transaction it is evicted again unless the transaction commits. */
+    public void put(Long key, V value) {
+        versions.incrementAndGet(stripe(key));
+        store.accept(key, value);
+        publish(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evictLocally(key);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts now and, inside a transaction, again after it completes: a reader that misses between the
+     * first eviction and the commit still sees the old row and would otherwise cache it.
+     */
+    public void invalidate(Long key) {
+        evictLocally(key);
+        publish(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocally(key);
+                }
+            });
+        }
+    }
+
+    private void evictLocally(Long key) {
+        evict.accept(key);
+        versions.incrementAndGet(stripe(key));
+        evict.accept(key);
+    }
+
+    private void publish(Long key) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(name, key);
+        }
+    }
+
+    static int stripe(Long key) {
+        int h = key.hashCode() * GOLDEN_RATIO;
+        return (h ^ (h >>> Short.SIZE)) & (VERSION_STRIPES - 1);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.javalabs2.Cache;
+
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Evicts from Hibernate's second-level cache. Hibernate keeps it coherent only with writes made through
+ * this instance, so the services call this wherever they evict their own caches, including evictions
+ * received from other instances over the {@link CacheInvalidationBus}.
+ */
+@Component
+public class SecondLevelCache {
+    private static final String ARTICLE_COMMENTS_ROLE = Article.class.getName() + ".comments";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void evictArticle(Long id) {
+        cache().evictEntityData(Article.class, id);
+    }
+
+    public void evictComment(Long id) {
+        Cache cache = cache();
+        cache.evictEntityData(Comment.class, id);
+        cache.evictQueryRegion(HibernateCacheConfig.COMMENTS_BY_ARTICLE_QUERY_REGION);
+    }
+
+    public void evictArticleComments(Long articleId, Collection<Long> commentIds) {
+        Cache cache = cache();
+        cache.evictCollectionData(ARTICLE_COMMENTS_ROLE, articleId);
+        commentIds.forEach(id -> cache.evictEntityData(Comment.class, id));
+        cache.evictQueryRegion(HibernateCacheConfig.COMMENTS_BY_ARTICLE_QUERY_REGION);
+    }
+
+    public void evictArticles() {
+        Cache cache = cache();
+        cache.evictEntityData(Article.class);
+        cache.evictCollectionData(ARTICLE_COMMENTS_ROLE);
+    }
+
+    public void evictComments() {
+        Cache cache = cache();
+        cache.evictEntityData(Comment.class);
+        cache.evictQueryRegion(HibernateCacheConfig.COMMENTS_BY_ARTICLE_QUERY_REGION);
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
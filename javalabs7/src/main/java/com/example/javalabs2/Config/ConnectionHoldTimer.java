@@ -0,0 +1,63 @@
+package com.example.javalabs2.Config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Times how long connections are held, from checkout until they are closed, and keeps a running total
+ * per thread so a caller can attribute the hold time to the work it wraps by taking differences.
+ */
+public class ConnectionHoldTimer {
+    private final ThreadLocal<long[]> heldNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    /** Total hold time of the connections closed on this thread, in nanoseconds. */
+    public long heldNanos() {
+        return heldNanos.get()[0];
+    }
+
+    public DataSource wrap(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return timed(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return timed(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private Connection timed(Connection connection) {
+        long checkedOut = System.nanoTime();
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                heldNanos.get()[0] += System.nanoTime() - checkedOut;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
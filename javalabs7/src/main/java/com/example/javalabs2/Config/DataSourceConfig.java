@@ -0,0 +1,91 @@
+package com.example.javalabs2.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The primary pool from {@code spring.datasource}, plus optional read replicas listed in
+ * {@code datasource.replica.urls}. Replicas share the primary's credentials and pool settings.
+ * Connections are fetched lazily, so {@link ReplicaRoutingDataSource} can route each transaction once it
+ * has begun, and their hold time is measured by {@link ConnectionHoldTimer}.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${datasource.replica.urls:}") String[] urls,
+            @Value("${datasource.replica.lag-query:" + ReplicaRoutingDataSource.POSTGRES_LAG_QUERY + "}")
+            String lagQuery,
+            @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMs,
+            @Value("${datasource.replica.lag-check-ms:1000}") long lagCheckMs,
+            @Value("${datasource.replica.sticky-ms:5000}") long stickyMs,
+            @Value("${datasource.replica.sticky-secret:}") String stickySecret) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLagMs, lagCheckMs, stickyMs,
+                stickySecret);
+    }
+
+    @Bean
+    public ConnectionHoldTimer connectionHoldTimer() {
+        return new ConnectionHoldTimer();
+    }
+
+    /** Connections are fetched on first use, so a transaction served entirely from caches never takes one. */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                 ConnectionHoldTimer connectionHoldTimer) {
+        return new LazyConnectionDataSourceProxy(connectionHoldTimer.wrap(replicaRoutingDataSource));
+    }
+
+    /**
+     * Hibernate otherwise keeps a session's connection until the session closes, and with open-in-view
+     * that spans the whole request, including rendering the response. Releasing it after each
+     * transaction also gives every transaction its own replica routing decision, where a held
+     * connection could send a write to the replica an earlier read picked.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
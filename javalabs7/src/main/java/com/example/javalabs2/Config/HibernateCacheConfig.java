@@ -0,0 +1,70 @@
+package com.example.javalabs2.Config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache regions, held in Caffeine through JCache. Every region is created here
+ * with its own size limit; Hibernate is configured to fail on startup rather than create one unbounded.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    public static final String ARTICLE_REGION = "article";
+    public static final String COMMENT_REGION = "comment";
+    public static final String ARTICLE_COMMENTS_REGION = "article.comments";
+    public static final String COMMENTS_BY_ARTICLE_QUERY_REGION = "query.commentsByArticle";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${l2cache.entity.max-entries:10000}") long entityMaxEntries,
+            @Value("${l2cache.collection.max-entries:10000}") long collectionMaxEntries,
+            @Value("${l2cache.query.max-entries:1000}") long queryMaxEntries,
+            @Value("${l2cache.ttl-seconds:600}") long ttlSeconds) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // A manager of its own per context, so several contexts in one JVM never share regions.
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate-" + UUID.randomUUID()),
+                getClass().getClassLoader());
+        createRegion(cacheManager, ARTICLE_REGION, entityMaxEntries, ttlSeconds);
+        createRegion(cacheManager, COMMENT_REGION, entityMaxEntries, ttlSeconds);
+        createRegion(cacheManager, ARTICLE_COMMENTS_REGION, collectionMaxEntries, ttlSeconds);
+        createRegion(cacheManager, COMMENTS_BY_ARTICLE_QUERY_REGION, queryMaxEntries, ttlSeconds);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, queryMaxEntries,
+                ttlSeconds);
+        // One entry per table; losing one would let stale query results count as current.
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 0, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate caches immutable disassembled state, so copying entries on every access buys nothing.
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (maxEntries > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.javalabs2.Config;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A read-only transaction whose queries {@link ReplicaRoutingDataSource} may send to a replica. Other
+ * read-only transactions, such as the ones repositories open on their own, always use the primary.
+ * <p>
+ * Methods that fill a cache are not replica reads: a replica still behind a write would refill the entry
+ * the write just evicted with the old row, and nothing would evict it again.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReplicaRead {
+}
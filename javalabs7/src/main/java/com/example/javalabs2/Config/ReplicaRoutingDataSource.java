@@ -0,0 +1,267 @@
+package com.example.javalabs2.Config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Target of the application's {@code LazyConnectionDataSourceProxy}, which defers fetching a connection
+ * until the first statement, when the transaction is known. {@code @Transactional(readOnly = true)}
+ * service methods read from a replica, round-robin among those whose last measured replication lag is
+ * within bounds; everything else uses the primary. Only transactions begun by a {@link ReplicaRead}
+ * method are eligible, so repository reads inside write paths never see stale rows. They still use the
+ * primary when no replica qualifies.
+ * <p>
+ * After a write commits, the writing client is pinned to the primary through a cookie, so it reads its own
+ * writes on any instance while other clients keep reading from the replicas. The cookie is signed, so
+ * clients cannot forge or extend it. Instances share the signing secret, or honour only their own cookies
+ * when none is configured.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements TransactionExecutionListener {
+    public static final String STICKY_COOKIE = "primary-until";
+    /** Zero when caught up; otherwise the age of the last replayed transaction. */
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String STICKY_MAC = "HmacSHA256";
+    private static final int GENERATED_SECRET_BYTES = 32;
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+    private static final String PINNED_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".pinned";
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long lagCheckMillis;
+    private final long stickyMillis;
+    private final SecretKeySpec stickyKey;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService lagChecker;
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile long lagMillis = UNKNOWN_LAG;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, String lagQuery,
+                                    long maxLagMillis, long lagCheckMillis, long stickyMillis, String stickySecret) {
+        if (lagCheckMillis < 1) {
+            throw new IllegalArgumentException("Replica lag check interval must be positive");
+        }
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.lagCheckMillis = lagCheckMillis;
+        this.stickyMillis = stickyMillis;
+        byte[] secret = stickySecret == null || stickySecret.isEmpty()
+                ? generateSecret()
+                : stickySecret.getBytes(StandardCharsets.UTF_8);
+        this.stickyKey = new SecretKeySpec(secret, STICKY_MAC);
+    }
+
+    /** Called by {@link ReplicaRead} methods on entry; returns the state to pass to {@link #endReplicaRead}. */
+    public static boolean beginReplicaRead() {
+        boolean previous = REPLICA_READ.get() != null;
+        REPLICA_READ.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void endReplicaRead(boolean previous) {
+        if (!previous) {
+            REPLICA_READ.remove();
+        }
+    }
+
+    public void start() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        refreshLag();
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::refreshLag, lagCheckMillis, lagCheckMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void close() throws Exception {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.lagMillis = UNKNOWN_LAG;
+                LOGGER.warn("Replica unavailable, reading from the primary: {}", e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Replica routing does not support per-call credentials");
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            pinSession();
+        }
+    }
+
+    /** Measures every replica's lag; replicas that cannot be measured are not read from. */
+    public void refreshLag() {
+        for (Replica replica : replicas) {
+            replica.lagMillis = measureLag(replica);
+        }
+    }
+
+    private Replica chooseReplica() {
+        if (replicas.isEmpty() || !isReplicaReadTransaction() || isPinned()) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.lagMillis <= maxLagMillis) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isReplicaReadTransaction() {
+        return REPLICA_READ.get() != null && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private boolean isPinned() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        if (attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        Cookie[] cookies = attributes.getRequest().getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (STICKY_COOKIE.equals(cookie.getName())) {
+                    return isValidSticky(cookie.getValue(), System.currentTimeMillis());
+                }
+            }
+        }
+        return false;
+    }
+
+    private void pinSession() {
+        if (replicas.isEmpty() || stickyMillis <= 0
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(STICKY_COOKIE, stickyValue(System.currentTimeMillis() + stickyMillis));
+            // Rounded up; the signed expiry in the value is what ends the pin.
+            cookie.setMaxAge((int) TimeUnit.MILLISECONDS.toSeconds(stickyMillis) + 1);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+    }
+
+    /** The pin's expiry followed by a MAC of it. */
+    private String stickyValue(long until) {
+        return until + "." + sign(until);
+    }
+
+    private boolean isValidSticky(String value, long now) {
+        int dot = value == null ? -1 : value.indexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        long until;
+        try {
+            until = Long.parseLong(value.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return now < until && MessageDigest.isEqual(sign(until).getBytes(StandardCharsets.US_ASCII),
+                value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(long until) {
+        try {
+            Mac mac = Mac.getInstance(STICKY_MAC);
+            mac.init(stickyKey);
+            byte[] signature = mac.doFinal(Long.toString(until).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign the " + STICKY_COOKIE + " cookie", e);
+        }
+    }
+
+    private static byte[] generateSecret() {
+        byte[] secret = new byte[GENERATED_SECRET_BYTES];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private long measureLag(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? Math.max(0, resultSet.getLong(1)) : UNKNOWN_LAG;
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            return UNKNOWN_LAG;
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package com.example.javalabs2.Controller;
 
+import com.example.javalabs2.Dto.ArticleDto;
+import com.example.javalabs2.Dto.ArticleSearchHit;
+import com.example.javalabs2.Dto.CommentDto;
+import com.example.javalabs2.Dto.CommentIngestStatus;
 import com.example.javalabs2.Entity.Article;
 import com.example.javalabs2.Entity.Comment;
 import com.example.javalabs2.Service.ArticleService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -17,10 +27,15 @@ import java.util.List;
 @Tag(name = "Article API", description = "Endpoints for managing articles and comments")
 public class ArticleController {
 
+    public static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
+    public static final String INCLUDE_COMMENTS = "comments";
+
     private final ArticleService articleService;
+    private final ObjectMapper objectMapper;
 
-    public ArticleController(ArticleService articleService) {
+    public ArticleController(ArticleService articleService, ObjectMapper objectMapper) {
         this.articleService = articleService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Create a new article", description = "Creates a new article with the provided details")
@@ -34,28 +49,121 @@ public class ArticleController {
         return ResponseEntity.ok(articleService.createArticle(article));
     }
 
-    @Operation(summary = "Get all articles", description = "Retrieves a list of all articles")
+    @Operation(summary = "Create articles in bulk",
+            description = "Creates many articles using batched inserts, committed in chunks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Articles created successfully"),
+            @ApiResponse(responseCode = "400", description = "Empty or invalid article list"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<List<Article>> createArticles(@RequestBody List<Article> articles) {
+        return ResponseEntity.ok(articleService.createArticles(articles));
+    }
+
+    @Operation(summary = "Get articles page",
+            description = "Retrieves up to limit articles with ID greater than afterId, ordered by ID. "
+                    + "The " + NEXT_AFTER_ID_HEADER + " header holds the cursor for the next page. "
+                    + "With include=" + INCLUDE_COMMENTS + " the comments of the page are fetched in one query")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "List of articles retrieved"),
+            @ApiResponse(responseCode = "200", description = "Page of articles retrieved"),
+            @ApiResponse(responseCode = "400", description = "Invalid page parameters"),
             @ApiResponse(responseCode = "500", description = "Server error")
     })
     @GetMapping
-    public ResponseEntity<List<Article>> getAllArticles() {
-        return ResponseEntity.ok(articleService.getAllArticles());
+    public ResponseEntity<List<ArticleDto>> getArticles(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String include) {
+        List<ArticleDto> articles = articleService.getArticles(afterId, limit, includesComments(include));
+        if (articles.size() < limit) {
+            return ResponseEntity.ok(articles);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_AFTER_ID_HEADER, String.valueOf(articles.get(articles.size() - 1).getId()))
+                .body(articles);
+    }
+
+    @Operation(summary = "Stream all articles",
+            description = "Streams every article as a JSON array, written incrementally in ID order")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Articles streamed"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamArticles() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                articleService.streamArticles(article -> {
+                    try {
+                        objectMapper.writeValue(generator, article);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Search articles",
+            description = "Full-text search over article titles and content, ranked by BM25 relevance. "
+                    + "Served from an in-memory index without querying the database")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching articles, best match first"),
+            @ApiResponse(responseCode = "400", description = "Empty query or invalid limit"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<ArticleSearchHit>> searchArticles(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(articleService.searchArticles(q, limit));
     }
 
-    @Operation(summary = "Get article by ID", description = "Retrieves an article by its ID")
+    @Operation(summary = "Get articles with their comments",
+            description = "Retrieves up to " + ArticleService.MAX_BATCH_SIZE + " articles by ID together with their "
+                    + "comments, in request order. Unknown IDs are skipped")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Articles with comments retrieved"),
+            @ApiResponse(responseCode = "400", description = "Empty or too long ID list"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping("/with-comments")
+    public ResponseEntity<List<ArticleDto>> getArticlesWithComments(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(articleService.getArticlesWithComments(ids));
+    }
+
+    @Operation(summary = "Get article by ID",
+            description = "Retrieves an article by its ID, with its comments when include=" + INCLUDE_COMMENTS
+                    + ". Without comments the response carries an ETag and Last-Modified for conditional GETs")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Article found"),
+            @ApiResponse(responseCode = "304", description = "Article unchanged since the client's copy"),
+            @ApiResponse(responseCode = "400", description = "Unsupported include value"),
             @ApiResponse(responseCode = "404", description = "Article not found"),
             @ApiResponse(responseCode = "500", description = "Server error")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Article> getArticleById(@PathVariable Long id) {
-        return ResponseEntity.ok(articleService.getArticleById(id));
+    public ResponseEntity<ArticleDto> getArticleById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String include) {
+        boolean includeComments = includesComments(include);
+        ArticleDto article = articleService.getArticle(id, includeComments);
+        if (article == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Comment changes do not bump the article version, so only the bare article is validated.
+        if (includeComments) {
+            return ResponseEntity.ok(article);
+        }
+        return ConditionalResponses.ok(article.getId(), article.getVersion(), article.getUpdatedAt()).body(article);
     }
 
-    @Operation(summary = "Update an article", description = "Updates an existing article by ID")
+    @Operation(summary = "Update an article",
+            description = "Updates an existing article by ID. The response carries the new ETag and Last-Modified")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Article updated successfully"),
             @ApiResponse(responseCode = "404", description = "Article not found"),
@@ -66,7 +174,11 @@ public class ArticleController {
     public ResponseEntity<Article> updateArticle(
             @PathVariable Long id,
             @RequestBody Article articleDetails) {
-        return ResponseEntity.ok(articleService.updateArticle(id, articleDetails));
+        Article article = articleService.updateArticle(id, articleDetails);
+        if (article == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ConditionalResponses.ok(article.getId(), article.getVersion(), article.getUpdatedAt()).body(article);
     }
 
     @Operation(summary = "Delete an article", description = "Deletes an article by ID")
@@ -77,8 +189,9 @@ public class ArticleController {
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteArticle(@PathVariable Long id) {
-        articleService.deleteArticle(id);
-        return ResponseEntity.noContent().build();
+        return articleService.deleteArticle(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
     @Operation(summary = "Add a comment to an article", description = "Adds a comment to the specified article")
@@ -92,17 +205,61 @@ public class ArticleController {
     public ResponseEntity<Comment> addComment(
             @PathVariable Long articleId,
             @RequestBody Comment comment) {
-        return ResponseEntity.ok(articleService.addComment(articleId, comment));
+        return ResponseEntity.ofNullable(articleService.addComment(articleId, comment));
+    }
+
+    @Operation(summary = "Queue a comment for an article",
+            description = "Queues the comment for batched insertion and answers at once with a tracking ID. "
+                    + "The Location header points at its ingestion status, which reports ARTICLE_NOT_FOUND "
+                    + "if the article does not exist when the comment is written")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Comment queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid comment data"),
+            @ApiResponse(responseCode = "429", description = "Ingestion buffer full, retry later"),
+            @ApiResponse(responseCode = "503", description = "Ingestion disabled or not running"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @PostMapping("/{articleId}/comments/async")
+    public ResponseEntity<CommentIngestStatus> addCommentAsync(
+            @PathVariable Long articleId,
+            @RequestBody Comment comment) {
+        return CommentController.accepted(articleService.addCommentAsync(articleId, comment));
     }
 
-    @Operation(summary = "Get comments for an article", description = "Retrieves all comments for the specified article")
+    @Operation(summary = "Add comments to an article in bulk",
+            description = "Adds many comments to the specified article using batched inserts, committed in chunks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Comments added successfully"),
+            @ApiResponse(responseCode = "404", description = "Article not found"),
+            @ApiResponse(responseCode = "400", description = "Empty or invalid comment list"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @PostMapping("/{articleId}/comments/bulk")
+    public ResponseEntity<List<Comment>> addComments(
+            @PathVariable Long articleId,
+            @RequestBody List<Comment> comments) {
+        return ResponseEntity.ofNullable(articleService.addComments(articleId, comments));
+    }
+
+    @Operation(summary = "Get comments for an article",
+            description = "Retrieves all comments for the specified article")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "List of comments retrieved"),
             @ApiResponse(responseCode = "500", description = "Server error")
     })
     @GetMapping("/{articleId}/comments")
-    public ResponseEntity<List<Comment>> getArticleComments(
+    public ResponseEntity<List<CommentDto>> getArticleComments(
             @PathVariable Long articleId) {
         return ResponseEntity.ok(articleService.getArticleComments(articleId));
     }
-}
\ No newline at end of file
+
+    private static boolean includesComments(String include) {
+        if (include == null || include.isBlank()) {
+            return false;
+        }
+        if (!INCLUDE_COMMENTS.equals(include.trim())) {
+            throw new IllegalArgumentException("Unsupported include: " + include);
+        }
+        return true;
+    }
+}
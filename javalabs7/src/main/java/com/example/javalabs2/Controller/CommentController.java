@@ -1,25 +1,43 @@
 package com.example.javalabs2.Controller;
 
+import com.example.javalabs2.Dto.CommentDto;
+import com.example.javalabs2.Dto.CommentIngestStatus;
 import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Service.CommentIngestService;
 import com.example.javalabs2.Service.CommentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/comments")
 @Tag(name = "Comment API", description = "Endpoints for managing comments")
 public class CommentController {
 
+    public static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
+    public static final String INGEST_STATUS_PATH = "/api/comments/ingest/";
+    public static final long MAX_INGEST_WAIT_MS = 30_000;
+
     private final CommentService commentService;
+    private final ObjectMapper objectMapper;
 
-    public CommentController(CommentService commentService) {
+    public CommentController(CommentService commentService, ObjectMapper objectMapper) {
         this.commentService = commentService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Create a new comment", description = "Creates a new comment with the provided details")
@@ -33,28 +51,123 @@ public class CommentController {
         return ResponseEntity.ok(commentService.createComment(comment));
     }
 
-    @Operation(summary = "Get all comments", description = "Retrieves a list of all comments")
+    @Operation(summary = "Queue a new comment",
+            description = "Queues the comment for batched insertion under the article given by articleId and "
+                    + "answers at once with a tracking ID. The Location header points at its ingestion status, "
+                    + "which reports ARTICLE_NOT_FOUND if the article does not exist when the comment is written")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "List of comments retrieved"),
+            @ApiResponse(responseCode = "202", description = "Comment queued"),
+            @ApiResponse(responseCode = "400", description = "Missing article ID or comment"),
+            @ApiResponse(responseCode = "429", description = "Ingestion buffer full, retry later"),
+            @ApiResponse(responseCode = "503", description = "Ingestion disabled or not running"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @PostMapping("/async")
+    public ResponseEntity<CommentIngestStatus> createCommentAsync(
+            @RequestParam(required = false) Long articleId,
+            @RequestBody Comment comment) {
+        return accepted(commentService.createCommentAsync(articleId, comment));
+    }
+
+    @Operation(summary = "Get comment ingestion status",
+            description = "Reports whether a queued comment has been saved. With waitMs the response is held "
+                    + "until the comment is written or that many milliseconds (at most " + MAX_INGEST_WAIT_MS
+                    + ") have passed")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ingestion status retrieved"),
+            @ApiResponse(responseCode = "400", description = "Invalid wait time"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping("/ingest/{trackingId}")
+    public CompletableFuture<ResponseEntity<CommentIngestStatus>> getIngestStatus(
+            @PathVariable String trackingId,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        if (waitMs < 0 || waitMs > MAX_INGEST_WAIT_MS) {
+            throw new IllegalArgumentException("waitMs must be between 0 and " + MAX_INGEST_WAIT_MS);
+        }
+        CommentIngestService.Ticket ticket = commentService.getIngestTicket(trackingId);
+        if (ticket == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        if (waitMs == 0 || ticket.result().isDone()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.ok(CommentIngestStatus.from(trackingId, ticket.result())));
+        }
+        // Waits on a copy, so the timeout cannot complete the ticket itself.
+        return ticket.result()
+                .handle((comment, failure) -> CommentIngestStatus.from(trackingId, ticket.result()))
+                .completeOnTimeout(new CommentIngestStatus(trackingId, CommentIngestStatus.State.QUEUED, null),
+                        waitMs, TimeUnit.MILLISECONDS)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    static ResponseEntity<CommentIngestStatus> accepted(CommentIngestService.Ticket ticket) {
+        return ResponseEntity.accepted()
+                .location(URI.create(INGEST_STATUS_PATH + ticket.trackingId()))
+                .body(CommentIngestStatus.from(ticket.trackingId(), ticket.result()));
+    }
+
+    @Operation(summary = "Get comments page",
+            description = "Retrieves up to limit comments with ID greater than afterId, ordered by ID. "
+                    + "The " + NEXT_AFTER_ID_HEADER + " header holds the cursor for the next page")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of comments retrieved"),
+            @ApiResponse(responseCode = "400", description = "Invalid page parameters"),
             @ApiResponse(responseCode = "500", description = "Server error")
     })
     @GetMapping
-    public ResponseEntity<List<Comment>> getAllComments() {
-        return ResponseEntity.ok(commentService.getAllComments());
+    public ResponseEntity<List<CommentDto>> getComments(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<CommentDto> comments = commentService.getComments(afterId, limit);
+        if (comments.size() < limit) {
+            return ResponseEntity.ok(comments);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_AFTER_ID_HEADER, String.valueOf(comments.get(comments.size() - 1).getId()))
+                .body(comments);
+    }
+
+    @Operation(summary = "Stream all comments",
+            description = "Streams every comment as newline-delimited JSON, written incrementally in ID order")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Comments streamed"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamComments() {
+        ObjectWriter writer = objectMapper.writerFor(CommentDto.class);
+        StreamingResponseBody body = outputStream -> commentService.streamComments(comment -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(comment));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
-    @Operation(summary = "Get comment by ID", description = "Retrieves a comment by its ID")
+    @Operation(summary = "Get comment by ID",
+            description = "Retrieves a comment by its ID, with an ETag and Last-Modified for conditional GETs")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Comment found"),
+            @ApiResponse(responseCode = "304", description = "Comment unchanged since the client's copy"),
             @ApiResponse(responseCode = "404", description = "Comment not found"),
             @ApiResponse(responseCode = "500", description = "Server error")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Comment> getCommentById(@PathVariable Long id) {
-        return ResponseEntity.ok(commentService.getCommentById(id));
+        Comment comment = commentService.getCommentById(id);
+        if (comment == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ConditionalResponses.ok(comment.getId(), comment.getVersion(), comment.getUpdatedAt()).body(comment);
     }
 
-    @Operation(summary = "Update a comment", description = "Updates an existing comment by ID")
+    @Operation(summary = "Update a comment",
+            description = "Updates an existing comment by ID. The response carries the new ETag and Last-Modified")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Comment updated successfully"),
             @ApiResponse(responseCode = "404", description = "Comment not found"),
@@ -65,7 +178,11 @@ public class CommentController {
     public ResponseEntity<Comment> updateComment(
             @PathVariable Long id,
             @RequestBody Comment commentDetails) {
-        return ResponseEntity.ok(commentService.updateComment(id, commentDetails));
+        Comment comment = commentService.updateComment(id, commentDetails);
+        if (comment == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ConditionalResponses.ok(comment.getId(), comment.getVersion(), comment.getUpdatedAt()).body(comment);
     }
 
     @Operation(summary = "Delete a comment", description = "Deletes a comment by ID")
@@ -76,8 +193,9 @@ public class CommentController {
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteComment(@PathVariable Long id) {
-        commentService.deleteComment(id);
-        return ResponseEntity.noContent().build();
+        return commentService.deleteComment(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
     @Operation(summary = "Search comments", description = "Searches comments by article ID and optional author filter")
@@ -87,7 +205,7 @@ public class CommentController {
             @ApiResponse(responseCode = "500", description = "Server error")
     })
     @GetMapping("/search")
-    public ResponseEntity<List<Comment>> searchComments(
+    public ResponseEntity<List<CommentDto>> searchComments(
             @RequestParam Long articleId,
             @RequestParam(required = false) String authorFilter) {
         return ResponseEntity.ok(commentService.searchComments(articleId,
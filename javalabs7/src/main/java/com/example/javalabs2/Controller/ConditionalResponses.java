@@ -0,0 +1,29 @@
+package com.example.javalabs2.Controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+
+/**
+ * Builds 200 responses carrying a strong ETag of id and version plus Last-Modified. For GET requests
+ * whose If-None-Match or If-Modified-Since still matches, Spring answers 304 from these headers
+ * without serializing the body. Updates answer with the same headers, so a client can revalidate the
+ * copy it just wrote.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static ResponseEntity.BodyBuilder ok(Long id, Long version, Instant updatedAt) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (id != null && version != null) {
+            builder.eTag(id + "-" + version);
+        }
+        if (updatedAt != null) {
+            builder.lastModified(updatedAt);
+        }
+        return builder;
+    }
+}
@@ -6,6 +6,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 public class RequestController {
 
@@ -21,6 +24,16 @@ public class RequestController {
         return "Total requests: " + requestCounter.getCount();
     }
 
+    @GetMapping("/counter/details")
+    public Map<String, Object> getRequestCountDetails() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("total", requestCounter.getCount());
+        details.put("operations", requestCounter.getOperationCounts());
+        details.put("cacheHits", requestCounter.getCacheHits());
+        details.put("databaseLoads", requestCounter.getDatabaseLoads());
+        return details;
+    }
+
     @PostMapping("/counter/reset")
     public String resetRequestCount() {
         requestCounter.reset();
@@ -0,0 +1,33 @@
+package com.example.javalabs2.Dto;
+
+import com.example.javalabs2.Entity.Article;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ArticleDto {
+    private Long id;
+    private String title;
+    private String content;
+    private List<CommentDto> comments;
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Instant updatedAt;
+
+    public ArticleDto(Long id, String title, String content) {
+        this(id, title, content, null, null, null);
+    }
+
+    public static ArticleDto from(Article article) {
+        return new ArticleDto(article.getId(), article.getTitle(), article.getContent(), null,
+                article.getVersion(), article.getUpdatedAt());
+    }
+}
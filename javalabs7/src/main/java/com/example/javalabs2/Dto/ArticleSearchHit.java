@@ -0,0 +1,12 @@
+package com.example.javalabs2.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ArticleSearchHit {
+    private Long id;
+    private String title;
+    private double score;
+}
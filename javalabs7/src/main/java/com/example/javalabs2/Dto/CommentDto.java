@@ -0,0 +1,20 @@
+package com.example.javalabs2.Dto;
+
+import com.example.javalabs2.Entity.Comment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CommentDto {
+    private Long id;
+    private String author;
+    private String text;
+    private Long articleId;
+
+    public static CommentDto from(Comment comment) {
+        // getId() on an uninitialized article proxy does not hit the database.
+        Long articleId = comment.getArticle() != null ? comment.getArticle().getId() : null;
+        return new CommentDto(comment.getId(), comment.getAuthor(), comment.getText(), articleId);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.javalabs2.Dto;
+
+import com.example.javalabs2.Entity.Comment;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.concurrent.CompletableFuture;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CommentIngestStatus {
+    private String trackingId;
+    private State state;
+    private CommentDto comment;
+
+    public enum State {
+        QUEUED, SAVED, ARTICLE_NOT_FOUND, FAILED
+    }
+
+    public static CommentIngestStatus from(String trackingId, CompletableFuture<Comment> result) {
+        if (!result.isDone()) {
+            return new CommentIngestStatus(trackingId, State.QUEUED, null);
+        }
+        if (result.isCompletedExceptionally()) {
+            return new CommentIngestStatus(trackingId, State.FAILED, null);
+        }
+        Comment comment = result.join();
+        return comment == null
+                ? new CommentIngestStatus(trackingId, State.ARTICLE_NOT_FOUND, null)
+                : new CommentIngestStatus(trackingId, State.SAVED, CommentDto.from(comment));
+    }
+}
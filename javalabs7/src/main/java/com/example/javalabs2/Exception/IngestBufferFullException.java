@@ -0,0 +1,8 @@
+package com.example.javalabs2.Exception;
+
+/** Thrown when a write cannot be queued because the ingestion buffer is full; answered with 429. */
+public class IngestBufferFullException extends RuntimeException {
+    public IngestBufferFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.javalabs2.Exception;
+
+/**
+ * Thrown when a write cannot be queued because ingestion is disabled, not yet started or already shut
+ * down; answered with 503.
+ */
+public class IngestUnavailableException extends RuntimeException {
+    public IngestUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,34 @@
 package com.example.javalabs2.Repository;
 
+import com.example.javalabs2.Dto.ArticleDto;
 import com.example.javalabs2.Entity.Article;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ArticleRepository extends JpaRepository<Article, Long> {
-}
\ No newline at end of file
+    List<Article> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("SELECT a.id FROM Article a WHERE a.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.javalabs2.Dto.ArticleDto(a.id, a.title, a.content) FROM Article a "
+            + "WHERE a.id > :afterId ORDER BY a.id")
+    List<ArticleDto> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.javalabs2.Dto.ArticleDto(a.id, a.title, a.content) FROM Article a ORDER BY a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ArticleDto> streamAllSummaries();
+
+    @Query("SELECT a FROM Article a ORDER BY a.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Article> streamAllOrderById();
+}
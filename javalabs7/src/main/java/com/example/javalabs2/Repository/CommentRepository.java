@@ -1,15 +1,51 @@
 package com.example.javalabs2.Repository;
 
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Dto.CommentDto;
 import com.example.javalabs2.Entity.Comment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION,
+                    value = HibernateCacheConfig.COMMENTS_BY_ARTICLE_QUERY_REGION)
+    })
     List<Comment> findByArticleId(Long articleId);
-    @Query("SELECT c FROM Comment c WHERE c.article.id = :articleId AND LOWER(c.author) LIKE LOWER(CONCAT('%', :authorFilter, '%'))")
+
+    @Query("SELECT c FROM Comment c WHERE c.article.id = :articleId "
+            + "AND LOWER(c.author) LIKE LOWER(CONCAT('%', :authorFilter, '%')) ESCAPE '\\'")
     List<Comment> findByArticleIdAndAuthorContaining(@Param("articleId") Long articleId,
                                                      @Param("authorFilter") String authorFilter);
+
+    @Query("SELECT new com.example.javalabs2.Dto.CommentDto(c.id, c.author, c.text, c.article.id) FROM Comment c "
+            + "WHERE c.id > :afterId ORDER BY c.id")
+    List<CommentDto> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT c FROM Comment c WHERE c.article.id IN :articleIds ORDER BY c.id")
+    List<Comment> findByArticleIdIn(@Param("articleIds") Collection<Long> articleIds);
+
+    @Query("SELECT new com.example.javalabs2.Dto.CommentDto(c.id, c.author, c.text, c.article.id) FROM Comment c "
+            + "WHERE c.article.id IN :articleIds ORDER BY c.id")
+    List<CommentDto> findSummariesByArticleIds(@Param("articleIds") Collection<Long> articleIds);
+
+    @Query("SELECT new com.example.javalabs2.Dto.CommentDto(c.id, c.author, c.text, c.article.id) FROM Comment c "
+            + "ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<CommentDto> streamAllSummaries();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.article.id = :articleId")
+    int bulkDeleteByArticleId(@Param("articleId") Long articleId);
 }
@@ -5,128 +5,451 @@ import com.example.javalabs2.Entity.Comment;
 import com.example.javalabs2.Repository.ArticleRepository;
 import com.example.javalabs2.Repository.CommentRepository;
 import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Cache.ArticleSearchIndex;
+import com.example.javalabs2.Cache.CacheInvalidationBus;
 import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Cache.IdFilter;
+import com.example.javalabs2.Cache.ReadThroughCache;
+import com.example.javalabs2.Cache.SecondLevelCache;
+import com.example.javalabs2.Config.ReplicaRead;
+import com.example.javalabs2.Dto.ArticleDto;
+import com.example.javalabs2.Dto.ArticleSearchHit;
+import com.example.javalabs2.Dto.CommentDto;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ArticleService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SEARCH_RESULTS = 100;
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private static final String ARTICLE_SEARCH = "articleSearch";
+    private static final String ARTICLE_COMMENTS = "articleComments";
+
     private final ArticleRepository articleRepository;
     private final CommentRepository commentRepository;
-    private final ArticleCache articleCache;
     private final CommentCache commentCache;
     private final RequestCounter requestCounter;
+    private final EntityManager entityManager;
+    private final BulkImportService bulkImportService;
+    private final ArticleSearchIndex searchIndex;
+    private final CacheInvalidationBus invalidationBus;
+    private final SecondLevelCache secondLevelCache;
+    private final CommentIngestService commentIngestService;
+    private final IdFilter idFilter;
+    private final ReadThroughCache<Article> articles;
 
     public ArticleService(ArticleRepository articleRepository,
                           CommentRepository commentRepository,
                           ArticleCache articleCache,
                           CommentCache commentCache,
-                          RequestCounter requestCounter) {
+                          RequestCounter requestCounter,
+                          EntityManager entityManager,
+                          BulkImportService bulkImportService,
+                          ArticleSearchIndex searchIndex,
+                          CacheInvalidationBus invalidationBus,
+                          SecondLevelCache secondLevelCache,
+                          CommentIngestService commentIngestService,
+                          IdFilter idFilter) {
         this.articleRepository = articleRepository;
         this.commentRepository = commentRepository;
-        this.articleCache = articleCache;
         this.commentCache = commentCache;
         this.requestCounter = requestCounter;
+        this.entityManager = entityManager;
+        this.bulkImportService = bulkImportService;
+        this.searchIndex = searchIndex;
+        this.invalidationBus = invalidationBus;
+        this.secondLevelCache = secondLevelCache;
+        this.commentIngestService = commentIngestService;
+        this.idFilter = idFilter;
+        this.articles = new ReadThroughCache<>("article", articleCache::getArticleById,
+                (id, article) -> articleCache.putArticle(article),
+                id -> {
+                    secondLevelCache.evictArticle(id);
+                    articleCache.removeArticle(id);
+                },
+                () -> {
+                    secondLevelCache.evictArticles();
+                    articleCache.clear();
+                },
+                requestCounter, invalidationBus);
+        invalidationBus.subscribe(ARTICLE_SEARCH, this::refreshSearchIndex, this::rebuildSearchIndex);
+        invalidationBus.subscribe(ARTICLE_COMMENTS, this::evictArticleComments, () -> {
+            secondLevelCache.evictComments();
+            commentCache.clear();
+        });
+        commentIngestService.onBatchSaved(this::commentsIngested);
+    }
+
+    // Not a replica read: the index is built once, so rows a lagging replica missed would stay missing.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildSearchIndex() {
+        try (Stream<Article> articles = articleRepository.streamAllOrderById()) {
+            articles.forEach(article -> {
+                searchIndex.index(article);
+                entityManager.detach(article);
+            });
+        }
+    }
+
+    private void refreshSearchIndex(Long id) {
+        articleRepository.findById(id).ifPresentOrElse(searchIndex::index, () -> searchIndex.remove(id));
+    }
+
+    /**
+     * Handles comment list changes made on another instance. The comments this instance knows about are
+     * evicted from the second-level cache as well, since the change may have been the article's deletion.
+     */
+    private void evictArticleComments(Long articleId) {
+        secondLevelCache.evictArticleComments(articleId,
+                commentCache.getCommentsByArticle(articleId).stream().map(Comment::getId).toList());
+        commentCache.removeCommentsByArticle(articleId);
+    }
+
+    private void rebuildSearchIndex() {
+        searchIndex.clear();
+        List<Article> page;
+        long afterId = 0L;
+        do {
+            page = articleRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(MAX_PAGE_SIZE));
+            page.forEach(searchIndex::index);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == MAX_PAGE_SIZE);
     }
 
+    @Transactional
     public Article createArticle(Article article) {
-        requestCounter.increment();
+        requestCounter.increment("article.create");
         Article savedArticle = articleRepository.save(article);
-        articleCache.putArticle(savedArticle);
+        idFilter.articles().add(savedArticle.getId());
+        idFilter.comments().addAll(cascadedCommentIds(List.of(savedArticle)));
+        articles.put(savedArticle.getId(), savedArticle);
+        afterCommit(() -> searchIndex.index(savedArticle));
+        invalidationBus.publish(ARTICLE_SEARCH, savedArticle.getId());
         return savedArticle;
     }
 
+    // Not transactional: the import commits chunk by chunk.
     public List<Article> createArticles(List<Article> articles) {
-        requestCounter.increment();
+        requestCounter.increment("article.createBatch");
         if (articles == null || articles.isEmpty()) {
             throw new IllegalArgumentException("Article list cannot be null or empty");
         }
-        List<Article> savedArticles = articleRepository.saveAll(articles);
-        savedArticles.forEach(articleCache::putArticle);
+        List<Article> savedArticles = bulkImportService.importArticles(articles);
+        List<Long> ids = savedArticles.stream().map(Article::getId).toList();
+        idFilter.articles().addAll(ids);
+        idFilter.comments().addAll(cascadedCommentIds(savedArticles));
+        savedArticles.forEach(searchIndex::index);
+        invalidationBus.publishAll(ARTICLE_SEARCH, ids);
         return savedArticles;
     }
 
-    public List<Article> getAllArticles() {
-        requestCounter.increment();
-        List<Article> articles = articleRepository.findAll();
-        articles.forEach(articleCache::putArticle);
-        return articles;
+    private static List<Long> cascadedCommentIds(List<Article> savedArticles) {
+        return savedArticles.stream()
+                .filter(article -> article.getComments() != null)
+                .flatMap(article -> article.getComments().stream())
+                .map(Comment::getId)
+                .toList();
+    }
+
+    public List<ArticleSearchHit> searchArticles(String query, int limit) {
+        requestCounter.increment("article.search");
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Reads a page of article summaries. With {@code includeComments} the comments of the whole page are
+     * fetched in one extra query rather than one per article.
+     */
+    @ReplicaRead
+    public List<ArticleDto> getArticles(Long afterId, int limit, boolean includeComments) {
+        requestCounter.increment("article.getPage");
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<ArticleDto> page = articleRepository.findSummariesAfter(afterId != null ? afterId : 0L,
+                Limit.of(limit));
+        if (includeComments && !page.isEmpty()) {
+            Map<Long, List<CommentDto>> commentsByArticle = commentRepository
+                    .findSummariesByArticleIds(page.stream().map(ArticleDto::getId).toList()).stream()
+                    .collect(Collectors.groupingBy(CommentDto::getArticleId));
+            page.forEach(article -> article.setComments(
+                    commentsByArticle.getOrDefault(article.getId(), List.of())));
+        }
+        return page;
+    }
+
+    @ReplicaRead
+    public void streamArticles(Consumer<ArticleDto> consumer) {
+        requestCounter.increment("article.stream");
+        try (Stream<ArticleDto> articles = articleRepository.streamAllSummaries()) {
+            articles.forEach(consumer);
+        }
     }
 
+    @Transactional(readOnly = true)
     public Article getArticleById(Long id) {
-        requestCounter.increment();
-        Article cachedArticle = articleCache.getArticleById(id);
-        if (cachedArticle != null) {
-            return cachedArticle;
+        requestCounter.increment("article.getById");
+        if (!idFilter.articles().mightContain(id)) {
+            return null;
         }
-        Optional<Article> article = articleRepository.findById(id);
-        return article.map(a -> {
-            articleCache.putArticle(a);
-            return a;
-        }).orElse(null);
+        return articles.get(id, key -> articleRepository.findById(key).orElse(null));
+    }
+
+    @Transactional(readOnly = true)
+    public ArticleDto getArticle(Long id, boolean includeComments) {
+        Article article = getArticleById(id);
+        if (article == null) {
+            return null;
+        }
+        ArticleDto dto = ArticleDto.from(article);
+        if (includeComments) {
+            dto.setComments(toDtos(loadArticleComments(id)));
+        }
+        return dto;
+    }
+
+    /**
+     * Loads several articles with their comments. Whatever is not cached is read with at most one query
+     * for the articles and one for their comments, and both caches are filled from the results. Unknown
+     * IDs are skipped; the result follows the order of {@code ids}.
+     */
+    @Transactional(readOnly = true)
+    public List<ArticleDto> getArticlesWithComments(List<Long> ids) {
+        requestCounter.increment("article.getWithComments");
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Article ID list cannot be null or empty");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.contains(null)) {
+            throw new IllegalArgumentException("Article ID list cannot contain null");
+        }
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " articles can be requested at once");
+        }
+        uniqueIds.removeIf(id -> !idFilter.articles().mightContain(id));
+        Map<Long, Article> found = articles.getAll(uniqueIds, keys -> articleRepository.findAllById(keys).stream()
+                .collect(Collectors.toMap(Article::getId, Function.identity())));
+
+        Map<Long, List<Comment>> commentsByArticle = new HashMap<>();
+        Map<Long, Long> unloadedVersions = new HashMap<>();
+        for (Long id : found.keySet()) {
+            if (commentCache.isArticleLoaded(id)) {
+                requestCounter.cacheHit(ARTICLE_COMMENTS);
+                commentsByArticle.put(id, commentCache.getCommentsByArticle(id));
+            } else {
+                requestCounter.databaseLoad(ARTICLE_COMMENTS);
+                unloadedVersions.put(id, commentCache.articleVersion(id));
+            }
+        }
+        if (!unloadedVersions.isEmpty()) {
+            Map<Long, List<Comment>> loaded = commentRepository.findByArticleIdIn(unloadedVersions.keySet())
+                    .stream()
+                    .collect(Collectors.groupingBy(comment -> comment.getArticle().getId()));
+            unloadedVersions.forEach((id, version) -> {
+                List<Comment> comments = loaded.getOrDefault(id, List.of());
+                commentCache.putArticleComments(id, comments, version);
+                commentsByArticle.put(id, comments);
+            });
+        }
+
+        return uniqueIds.stream()
+                .filter(found::containsKey)
+                .map(id -> {
+                    ArticleDto dto = ArticleDto.from(found.get(id));
+                    dto.setComments(toDtos(commentsByArticle.get(id)));
+                    return dto;
+                })
+                .toList();
     }
 
+    @Transactional
     public Article updateArticle(Long id, Article articleDetails) {
-        requestCounter.increment();
-        Optional<Article> optionalArticle = articleRepository.findById(id);
-        if (optionalArticle.isEmpty()) {
+        requestCounter.increment("article.update");
+        if (!idFilter.articles().mightContain(id)) {
+            return null;
+        }
+        // An entity update lets Hibernate replace this article's second-level cache entry, where a bulk
+        // update would evict every article.
+        Article article = articleRepository.findById(id).orElse(null);
+        if (article == null) {
             return null;
         }
-        Article existingArticle = optionalArticle.get();
-        existingArticle.setTitle(articleDetails.getTitle());
-        existingArticle.setContent(articleDetails.getContent());
-        Article updatedArticle = articleRepository.save(existingArticle);
-        articleCache.putArticle(updatedArticle);
+        article.setTitle(articleDetails.getTitle());
+        article.setContent(articleDetails.getContent());
+        Article updatedArticle = articleRepository.saveAndFlush(article);
+        articles.invalidate(id);
+        afterCommit(() -> searchIndex.index(updatedArticle));
+        invalidationBus.publish(ARTICLE_SEARCH, id);
         return updatedArticle;
     }
 
+    @Transactional
     public boolean deleteArticle(Long id) {
-        requestCounter.increment();
-        Optional<Article> optionalArticle = articleRepository.findById(id);
-        if (optionalArticle.isEmpty()) {
+        requestCounter.increment("article.delete");
+        if (!idFilter.articles().mightContain(id)) {
             return false;
         }
-        Article article = optionalArticle.get();
-        List<Comment> comments = commentCache.getCommentsByArticle(id);
-        if (comments.isEmpty()) {
-            comments = commentRepository.findByArticleId(id);
+        // The comments go in one statement, evicting all cached comments; the article itself is deleted
+        // as an entity so the other articles stay cached.
+        commentRepository.bulkDeleteByArticleId(id);
+        Optional<Article> article = articleRepository.findById(id);
+        article.ifPresent(articleRepository::delete);
+        boolean deleted = article.isPresent();
+        if (deleted) {
+            idFilter.articles().removed(id);
         }
-        comments.forEach(comment -> commentCache.removeComment(comment.getId()));
-        articleRepository.delete(article);
-        articleCache.removeArticle(id);
-        return true;
+        invalidateArticleComments(id);
+        articles.invalidate(id);
+        afterCommit(() -> searchIndex.remove(id));
+        invalidationBus.publish(ARTICLE_COMMENTS, id);
+        invalidationBus.publish(ARTICLE_SEARCH, id);
+        return deleted;
     }
 
+    @Transactional
     public Comment addComment(Long articleId, Comment comment) {
-        requestCounter.increment();
-        Optional<Article> optionalArticle = articleRepository.findById(articleId);
-        if (optionalArticle.isEmpty()) {
+        requestCounter.increment("article.addComment");
+        if (!idFilter.articles().mightContain(articleId) || !articleRepository.existsById(articleId)) {
             return null;
         }
-        Article article = optionalArticle.get();
-        comment.setArticle(article);
-        if (article.getComments() == null) {
-            article.setComments(new ArrayList<>());
-        }
-        article.getComments().add(comment);
+        comment.setArticle(articleRepository.getReferenceById(articleId));
         Comment savedComment = commentRepository.save(comment);
+        idFilter.comments().add(savedComment.getId());
         commentCache.putComment(savedComment);
-        articleCache.putArticle(article);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        commentCache.removeCommentsByArticle(articleId);
+                    }
+                }
+            });
+        }
+        articles.invalidate(articleId);
+        invalidationBus.publish(ARTICLE_COMMENTS, articleId);
         return savedComment;
     }
 
-    public List<Comment> getArticleComments(Long articleId) {
-        requestCounter.increment();
-        List<Comment> cachedComments = commentCache.getCommentsByArticle(articleId);
-        if (!cachedComments.isEmpty()) {
-            return cachedComments;
+    /** Queues the comment for the batch writer; the ticket's result is null if the article does not exist. */
+    public CommentIngestService.Ticket addCommentAsync(Long articleId, Comment comment) {
+        requestCounter.increment("article.addCommentAsync");
+        return commentIngestService.submit(articleId, comment);
+    }
+
+    private void commentsIngested(List<Comment> comments) {
+        Set<Long> articleIds = new LinkedHashSet<>();
+        idFilter.comments().addAll(comments.stream().map(Comment::getId).toList());
+        for (Comment comment : comments) {
+            commentCache.putComment(comment);
+            if (comment.getArticle() != null) {
+                articleIds.add(comment.getArticle().getId());
+            }
+        }
+        articleIds.forEach(articles::invalidate);
+        invalidationBus.publishAll(ARTICLE_COMMENTS, articleIds);
+    }
+
+    // Not transactional: the import commits chunk by chunk.
+    public List<Comment> addComments(Long articleId, List<Comment> comments) {
+        requestCounter.increment("article.addComments");
+        if (comments == null || comments.isEmpty()) {
+            throw new IllegalArgumentException("Comment list cannot be null or empty");
         }
+        if (!idFilter.articles().mightContain(articleId)) {
+            return null;
+        }
+        List<Comment> savedComments = bulkImportService.importComments(articleId, comments);
+        if (savedComments != null) {
+            idFilter.comments().addAll(savedComments.stream().map(Comment::getId).toList());
+            articles.invalidate(articleId);
+            invalidationBus.publish(ARTICLE_COMMENTS, articleId);
+        }
+        return savedComments;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommentDto> getArticleComments(Long articleId) {
+        requestCounter.increment("article.getComments");
+        return toDtos(loadArticleComments(articleId));
+    }
+
+    private List<Comment> loadArticleComments(Long articleId) {
+        if (commentCache.isArticleLoaded(articleId)) {
+            requestCounter.cacheHit("articleComments");
+            return commentCache.getCommentsByArticle(articleId);
+        }
+        requestCounter.databaseLoad("articleComments");
+        long version = commentCache.articleVersion(articleId);
         List<Comment> comments = commentRepository.findByArticleId(articleId);
-        comments.forEach(commentCache::putComment);
+        commentCache.putArticleComments(articleId, comments, version);
         return comments;
     }
+
+    /**
+     * Evicts an article's comments now and again once the transaction completes, like
+     * {@link ReadThroughCache#invalidate}: a load between the first eviction and the commit still reads the
+     * old rows and would otherwise cache them.
+     */
+    private void invalidateArticleComments(Long articleId) {
+        commentCache.removeCommentsByArticle(articleId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    commentCache.removeCommentsByArticle(articleId);
+                }
+            });
+        }
+    }
+
+    /**
+     * The search index is shared and has no rollback, so changes to it wait for the commit. Outside a
+     * transaction they are made at once.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static List<CommentDto> toDtos(List<Comment> comments) {
+        return comments.stream().map(CommentDto::from).toList();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.javalabs2.Service;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Repository.CommentRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Service
+public class BulkImportService {
+
+    private final ArticleRepository articleRepository;
+    private final CommentRepository commentRepository;
+    private final ArticleCache articleCache;
+    private final CommentCache commentCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public BulkImportService(ArticleRepository articleRepository,
+                             CommentRepository commentRepository,
+                             ArticleCache articleCache,
+                             CommentCache commentCache,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bulk.import.chunk-size:1000}") int chunkSize) {
+        this.articleRepository = articleRepository;
+        this.commentRepository = commentRepository;
+        this.articleCache = articleCache;
+        this.commentCache = commentCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public List<Article> importArticles(List<Article> articles) {
+        for (Article article : articles) {
+            if (article.getComments() != null) {
+                article.getComments().forEach(comment -> comment.setArticle(article));
+            }
+        }
+        List<Article> savedArticles = new ArrayList<>(articles.size());
+        for (int from = 0; from < articles.size(); from += chunkSize) {
+            List<Article> chunk = articles.subList(from, Math.min(from + chunkSize, articles.size()));
+            savedArticles.addAll(saveChunk(() -> articleRepository.saveAll(chunk)));
+        }
+        return savedArticles;
+    }
+
+    public List<Comment> importComments(Long articleId, List<Comment> comments) {
+        if (!articleRepository.existsById(articleId)) {
+            return null;
+        }
+        List<Comment> savedComments = new ArrayList<>(comments.size());
+        try {
+            for (int from = 0; from < comments.size(); from += chunkSize) {
+                List<Comment> chunk = comments.subList(from, Math.min(from + chunkSize, comments.size()));
+                savedComments.addAll(saveChunk(() -> {
+                    Article article = articleRepository.getReferenceById(articleId);
+                    chunk.forEach(comment -> comment.setArticle(article));
+                    return commentRepository.saveAll(chunk);
+                }));
+            }
+        } finally {
+            // Also when a chunk fails, since the ones before it have committed.
+            evictArticle(articleId);
+        }
+        return savedComments;
+    }
+
+    /**
+     * Evicts the article and its comments now and, if a caller's transaction holds the chunks, again once
+     * it completes: a load between the first eviction and the commit still reads the old rows.
+     */
+    private void evictArticle(Long articleId) {
+        commentCache.removeCommentsByArticle(articleId);
+        articleCache.removeArticle(articleId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    commentCache.removeCommentsByArticle(articleId);
+                    articleCache.removeArticle(articleId);
+                }
+            });
+        }
+    }
+
+    private <T> List<T> saveChunk(Supplier<List<T>> writer) {
+        return transactionTemplate.execute(status -> {
+            List<T> saved = writer.get();
+            entityManager.flush();
+            entityManager.clear();
+            return saved;
+        });
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.javalabs2.Service;
+
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Exception.IngestBufferFullException;
+import com.example.javalabs2.Exception.IngestUnavailableException;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Repository.CommentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind path for comments, enabled with {@code comment.ingest.enabled}. Submitted
+ * comments wait in a bounded ring buffer, and a single writer inserts them in batches of up to
+ * {@code comment.ingest.batch-size}, at most {@code comment.ingest.flush-ms} after the first of them
+ * arrived, in one transaction of JDBC-batched inserts (multi-row on PostgreSQL). Submitters get a
+ * tracking id and a future; when the buffer is full a comment is refused instead of queued, and so it is
+ * while ingestion is disabled, not yet started or shut down. Queued comments only live in memory until
+ * their batch commits, so they are lost if the process dies.
+ */
+@Service
+public class CommentIngestService implements MeterBinder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommentIngestService.class);
+    private static final long IDLE_POLL_MS = 100;
+    private static final long STOP_TIMEOUT_MS = 10_000;
+
+    private final ArticleRepository articleRepository;
+    private final CommentRepository commentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushNanos;
+    private final BlockingQueue<Pending> buffer;
+    private final Cache<String, Ticket> tickets;
+    private final List<Consumer<List<Comment>>> batchListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean running;
+    private Thread writer;
+
+    /** Completes with the saved comment, with null if its article does not exist, or exceptionally. */
+    public record Ticket(String trackingId, CompletableFuture<Comment> result) {
+    }
+
+    private record Pending(Ticket ticket, Long articleId, Comment comment) {
+    }
+
+    public CommentIngestService(ArticleRepository articleRepository,
+                                CommentRepository commentRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${comment.ingest.enabled:false}") boolean enabled,
+                                @Value("${comment.ingest.capacity:10000}") int capacity,
+                                @Value("${comment.ingest.batch-size:200}") int batchSize,
+                                @Value("${comment.ingest.flush-ms:20}") long flushMs,
+                                @Value("${comment.ingest.status-ttl-seconds:600}") long statusTtlSeconds) {
+        if (capacity < 1 || batchSize < 1 || flushMs < 0) {
+            throw new IllegalArgumentException("Invalid comment ingestion settings");
+        }
+        this.articleRepository = articleRepository;
+        this.commentRepository = commentRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMs);
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(statusTtlSeconds))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Registers a handler that runs on the writer thread with the comments of each committed batch. */
+    public void onBatchSaved(Consumer<List<Comment>> listener) {
+        batchListeners.add(listener);
+    }
+
+    /** Queues {@code comment} for the article {@code articleId}, or for no article when it is null. */
+    public Ticket submit(Long articleId, Comment comment) {
+        if (!enabled) {
+            throw new IngestUnavailableException("Asynchronous comment ingestion is disabled");
+        }
+        if (comment == null) {
+            throw new IllegalArgumentException("Comment cannot be null");
+        }
+        if (!running) {
+            throw new IngestUnavailableException("Comment ingestion is not running");
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), new CompletableFuture<>());
+        tickets.put(ticket.trackingId(), ticket);
+        if (!buffer.offer(new Pending(ticket, articleId, comment))) {
+            tickets.invalidate(ticket.trackingId());
+            rejected.increment();
+            throw new IngestBufferFullException("Comment ingestion buffer is full, retry later");
+        }
+        return ticket;
+    }
+
+    public Ticket findTicket(String trackingId) {
+        return tickets.getIfPresent(trackingId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "comment-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Stops taking comments and waits for the writer to save those already queued. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(STOP_TIMEOUT_MS);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.comment.ingest.queued", buffer, BlockingQueue::size)
+                .description("Comments waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("app.comment.ingest.rejected", rejected, LongAdder::sum)
+                .description("Comments refused because the ingestion buffer was full")
+                .register(registry);
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                fill(batch);
+            } catch (InterruptedException e) {
+                // stop() works through running; an interrupt only cuts the current wait short.
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void fill(List<Pending> batch) throws InterruptedException {
+        Pending first = buffer.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushNanos;
+        while (batch.size() < batchSize) {
+            if (buffer.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            Pending next = running && remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /** Saves the batch in one transaction; if that fails, retries each comment alone to isolate the bad ones. */
+    private void write(List<Pending> batch) {
+        List<Comment> saved;
+        try {
+            saved = transactionTemplate.execute(status -> save(batch));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Comment batch of {} failed, saving one at a time: {}", batch.size(), e.getMessage());
+            saved = new ArrayList<>();
+            for (Pending pending : batch) {
+                try {
+                    saved.addAll(transactionTemplate.execute(status -> save(List.of(pending))));
+                } catch (RuntimeException single) {
+                    pending.ticket().result().completeExceptionally(single);
+                }
+            }
+        }
+        for (Consumer<List<Comment>> listener : batchListeners) {
+            try {
+                listener.accept(saved);
+            } catch (RuntimeException e) {
+                LOGGER.error("Comment batch listener failed", e);
+            }
+        }
+        // Completed last, so a caller waiting on the result finds the caches already updated.
+        batch.forEach(pending -> pending.ticket().result().complete(pending.comment()));
+    }
+
+    private List<Comment> save(List<Pending> batch) {
+        Set<Long> articleIds = batch.stream().map(Pending::articleId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existing = articleIds.isEmpty() ? Set.of()
+                : new HashSet<>(articleRepository.findExistingIds(articleIds));
+        List<Comment> comments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (pending.ticket().result().isDone()) {
+                continue;
+            }
+            Comment comment = pending.comment();
+            // A retry must insert afresh rather than merge the id and version a rolled-back flush assigned.
+            comment.setId(null);
+            comment.setVersion(null);
+            if (pending.articleId() == null) {
+                comments.add(comment);
+            } else if (existing.contains(pending.articleId())) {
+                comment.setArticle(articleRepository.getReferenceById(pending.articleId()));
+                comments.add(comment);
+            } else {
+                pending.ticket().result().complete(null);
+            }
+        }
+        commentRepository.saveAll(comments);
+        entityManager.flush();
+        entityManager.clear();
+        return comments;
+    }
+}
@@ -1,57 +1,120 @@
 package com.example.javalabs2.Service;
 
+import com.example.javalabs2.Dto.CommentDto;
 import com.example.javalabs2.Entity.Comment;
 import com.example.javalabs2.Repository.CommentRepository;
+import com.example.javalabs2.Cache.CacheInvalidationBus;
 import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Cache.IdFilter;
+import com.example.javalabs2.Cache.ReadThroughCache;
+import com.example.javalabs2.Cache.SecondLevelCache;
+import com.example.javalabs2.Config.ReplicaRead;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CommentService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final CommentRepository commentRepository;
     private final CommentCache commentCache;
     private final RequestCounter requestCounter;
+    private final CommentIngestService commentIngestService;
+    private final IdFilter idFilter;
+    private final ReadThroughCache<Comment> comments;
 
     public CommentService(CommentRepository commentRepository,
                           CommentCache commentCache,
-                          RequestCounter requestCounter) {
+                          RequestCounter requestCounter,
+                          CacheInvalidationBus invalidationBus,
+                          SecondLevelCache secondLevelCache,
+                          CommentIngestService commentIngestService,
+                          IdFilter idFilter) {
         this.commentRepository = commentRepository;
         this.commentCache = commentCache;
         this.requestCounter = requestCounter;
+        this.commentIngestService = commentIngestService;
+        this.idFilter = idFilter;
+        this.comments = new ReadThroughCache<>("comment", commentCache::getCommentById,
+                (id, comment) -> commentCache.putComment(comment),
+                id -> {
+                    secondLevelCache.evictComment(id);
+                    commentCache.evictComment(id);
+                },
+                () -> {
+                    secondLevelCache.evictComments();
+                    commentCache.clear();
+                },
+                requestCounter, invalidationBus);
     }
 
+    @Transactional
     public Comment createComment(Comment comment) {
-        requestCounter.increment();
+        requestCounter.increment("comment.create");
         Comment savedComment = commentRepository.save(comment);
-        commentCache.putComment(savedComment);
+        idFilter.comments().add(savedComment.getId());
+        comments.put(savedComment.getId(), savedComment);
         return savedComment;
     }
 
-    public List<Comment> getAllComments() {
-        requestCounter.increment();
-        List<Comment> comments = commentRepository.findAll();
-        comments.forEach(commentCache::putComment);
-        return comments;
+    /**
+     * Queues the comment for the batch writer, which saves it under the given article. The article is not
+     * read from the comment, since request bodies never carry it.
+     */
+    public CommentIngestService.Ticket createCommentAsync(Long articleId, Comment comment) {
+        requestCounter.increment("comment.createAsync");
+        if (articleId == null) {
+            throw new IllegalArgumentException("Article ID is required");
+        }
+        return commentIngestService.submit(articleId, comment);
+    }
+
+    /** The ticket of a queued or recently written comment, or null once it has expired. */
+    public CommentIngestService.Ticket getIngestTicket(String trackingId) {
+        return commentIngestService.findTicket(trackingId);
+    }
+
+    @ReplicaRead
+    public List<CommentDto> getComments(Long afterId, int limit) {
+        requestCounter.increment("comment.getPage");
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return commentRepository.findSummariesAfter(afterId != null ? afterId : 0L, Limit.of(limit));
+    }
+
+    @ReplicaRead
+    public void streamComments(Consumer<CommentDto> consumer) {
+        requestCounter.increment("comment.stream");
+        try (Stream<CommentDto> comments = commentRepository.streamAllSummaries()) {
+            comments.forEach(consumer);
+        }
     }
 
+    @Transactional(readOnly = true)
     public Comment getCommentById(Long id) {
-        requestCounter.increment();
-        Comment cachedComment = commentCache.getCommentById(id);
-        if (cachedComment != null) {
-            return cachedComment;
+        requestCounter.increment("comment.getById");
+        if (!idFilter.comments().mightContain(id)) {
+            return null;
         }
-        Optional<Comment> comment = commentRepository.findById(id);
-        return comment.map(c -> {
-            commentCache.putComment(c);
-            return c;
-        }).orElse(null);
+        return comments.get(id, key -> commentRepository.findById(key).orElse(null));
     }
 
+    @Transactional
     public Comment updateComment(Long id, Comment commentDetails) {
-        requestCounter.increment();
+        requestCounter.increment("comment.update");
+        if (!idFilter.comments().mightContain(id)) {
+            return null;
+        }
         Optional<Comment> optionalComment = commentRepository.findById(id);
         if (optionalComment.isEmpty()) {
             return null;
@@ -60,30 +123,63 @@ public class CommentService {
         existingComment.setAuthor(commentDetails.getAuthor());
         existingComment.setText(commentDetails.getText());
         Comment updatedComment = commentRepository.save(existingComment);
-        commentCache.putComment(updatedComment);
+        invalidate(id, updatedComment);
         return updatedComment;
     }
 
+    @Transactional
     public boolean deleteComment(Long id) {
-        requestCounter.increment();
+        requestCounter.increment("comment.delete");
+        if (!idFilter.comments().mightContain(id)) {
+            return false;
+        }
         Optional<Comment> optionalComment = commentRepository.findById(id);
         if (optionalComment.isEmpty()) {
             return false;
         }
         commentRepository.deleteById(id);
-        commentCache.removeComment(id);
+        idFilter.comments().removed(id);
+        invalidate(id, optionalComment.get());
         return true;
     }
 
-    public List<Comment> searchComments(Long articleId, String authorFilter) {
-        requestCounter.increment();
-        List<Comment> cachedComments = commentCache.getCommentsByAuthor(authorFilter.toLowerCase());
-        if (!cachedComments.isEmpty() && cachedComments.stream().allMatch(
-                c -> c.getArticle() != null && c.getArticle().getId().equals(articleId))) {
-            return cachedComments;
+    /**
+     * Evicts a changed comment now and once the transaction completes. Its article's comment list goes
+     * too, even when the comment itself was not cached: a list being loaded meanwhile may have read the
+     * old row.
+     */
+    private void invalidate(Long id, Comment comment) {
+        comments.invalidate(id);
+        Long articleId = comment.getArticle() != null ? comment.getArticle().getId() : null;
+        commentCache.evictComment(id, articleId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    commentCache.evictComment(id, articleId);
+                }
+            });
         }
-        List<Comment> comments = commentRepository.findByArticleIdAndAuthorContaining(articleId, authorFilter.toLowerCase());
-        comments.forEach(commentCache::putComment);
-        return comments;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommentDto> searchComments(Long articleId, String authorFilter) {
+        requestCounter.increment("comment.search");
+        if (commentCache.isArticleLoaded(articleId)) {
+            requestCounter.cacheHit("commentSearch");
+            return commentCache.getCommentsByArticleAndAuthorContaining(articleId, authorFilter).stream()
+                    .map(CommentDto::from)
+                    .toList();
+        }
+        requestCounter.databaseLoad("commentSearch");
+        long version = commentCache.articleVersion(articleId);
+        List<Comment> comments = commentRepository.findByArticleIdAndAuthorContaining(articleId,
+                escapeLike(authorFilter.toLowerCase()));
+        commentCache.putComments(articleId, comments, version);
+        return comments.stream().map(CommentDto::from).toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 }
\ No newline at end of file
@@ -1,19 +1,121 @@
 package com.example.javalabs2.Service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts service calls and cache lookups, exposed as Micrometer counters. Those must never go down, so
+ * {@link #reset()} only moves the baseline the getters report from.
+ */
 @Service
-public class RequestCounter {
-    private int count = 0;
+public class RequestCounter implements MeterBinder {
+    private static final String REQUESTS_METRIC = "app.requests";
+    private static final String CACHE_METRIC = "app.cache.lookups";
+
+    private final Tally count = new Tally();
+    private final Map<String, Tally> operationCounts = new ConcurrentHashMap<>();
+    private final Map<String, Tally> cacheHits = new ConcurrentHashMap<>();
+    private final Map<String, Tally> databaseLoads = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    private static final class Tally {
+        private final LongAdder total = new LongAdder();
+        private volatile long baseline;
+
+        private void increment() {
+            total.increment();
+        }
+
+        private long total() {
+            return total.sum();
+        }
+
+        private long sinceReset() {
+            return total.sum() - baseline;
+        }
+
+        private void reset() {
+            baseline = total.sum();
+        }
+    }
+
+    public void increment(String operation) {
+        count.increment();
+        counter(operationCounts, operation, REQUESTS_METRIC, "operation", operation).increment();
+    }
+
+    public void cacheHit(String cache) {
+        counter(cacheHits, cache, CACHE_METRIC, "cache", cache, "result", "hit").increment();
+    }
+
+    public void databaseLoad(String cache) {
+        counter(databaseLoads, cache, CACHE_METRIC, "cache", cache, "result", "db").increment();
+    }
+
+    public long getCount() {
+        return count.sinceReset();
+    }
+
+    public Map<String, Long> getOperationCounts() {
+        return snapshot(operationCounts);
+    }
+
+    public Map<String, Long> getCacheHits() {
+        return snapshot(cacheHits);
+    }
+
+    public Map<String, Long> getDatabaseLoads() {
+        return snapshot(databaseLoads);
+    }
+
+    public void reset() {
+        count.reset();
+        operationCounts.values().forEach(Tally::reset);
+        cacheHits.values().forEach(Tally::reset);
+        databaseLoads.values().forEach(Tally::reset);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        this.registry = meterRegistry;
+        FunctionCounter.builder(REQUESTS_METRIC + ".total", count, Tally::total)
+                .description("Service calls across all operations")
+                .register(meterRegistry);
+        operationCounts.forEach((operation, tally) ->
+                register(tally, REQUESTS_METRIC, "operation", operation));
+        cacheHits.forEach((cache, tally) -> register(tally, CACHE_METRIC, "cache", cache, "result", "hit"));
+        databaseLoads.forEach((cache, tally) -> register(tally, CACHE_METRIC, "cache", cache, "result", "db"));
+    }
 
-    public synchronized void increment() {
-        count++;
+    private Tally counter(Map<String, Tally> counters, String key, String metric, String... tags) {
+        Tally tally = counters.get(key);
+        if (tally != null) {
+            return tally;
+        }
+        return counters.computeIfAbsent(key, k -> {
+            Tally created = new Tally();
+            register(created, metric, tags);
+            return created;
+        });
     }
 
-    public synchronized int getCount() {
-        return count;
+    private void register(Tally tally, String metric, String... tags) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            FunctionCounter.builder(metric, tally, Tally::total).tags(tags).register(meterRegistry);
+        }
     }
 
-    public synchronized void reset() {
-        count = 0;
+    private static Map<String, Long> snapshot(Map<String, Tally> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((key, tally) -> result.put(key, tally.sinceReset()));
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.example.javalabs2.Service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead plus consecutive-failure circuit breaker for calls to a slow or flaky upstream.
+ * Rejected calls fail fast with {@link IllegalStateException} instead of tying up a request thread.
+ */
+public class UpstreamGuard {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private volatile long openedAt;
+
+    public UpstreamGuard(String name, int maxConcurrentCalls, long maxWaitMillis,
+                         int failureThreshold, long openMillis) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.maxWaitMillis = maxWaitMillis;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    public <T> T call(Supplier<T> action) {
+        boolean trial = acquireCircuit();
+        if (!acquirePermit()) {
+            if (trial) {
+                state.set(State.OPEN);
+            }
+            throw new IllegalStateException(name + " bulkhead is full");
+        }
+        try {
+            T result = action.get();
+            consecutiveFailures.set(0);
+            state.set(State.CLOSED);
+            return result;
+        } catch (RuntimeException e) {
+            if (trial || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                trip();
+            }
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private boolean acquireCircuit() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return false;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return true;
+        }
+        throw new IllegalStateException(name + " circuit is open");
+    }
+
+    private boolean acquirePermit() {
+        try {
+            return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void trip() {
+        consecutiveFailures.set(0);
+        openedAt = System.nanoTime();
+        state.set(State.OPEN);
+    }
+}
@@ -3,45 +3,149 @@ package com.example.javalabs2.Service;
 import com.example.javalabs2.Dto.WikiResponse;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class WikiSearchService {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final RequestCounter requestCounter;
+    private final UpstreamGuard upstreamGuard;
+    private final Cache<String, SearchResult> searchCache;
+    private final Map<String, CompletableFuture<SearchResult>> inFlight = new ConcurrentHashMap<>();
+
+    private record SearchResult(WikiResponse response, boolean found) {
+    }
 
     @Autowired
-    public WikiSearchService(RestTemplate restTemplate, ObjectMapper objectMapper, RequestCounter requestCounter) {
+    public WikiSearchService(RestTemplate restTemplate, ObjectMapper objectMapper, RequestCounter requestCounter,
+                             UpstreamGuard upstreamGuard,
+                             @Value("${wiki.cache.max-entries:10000}") long maxEntries,
+                             @Value("${wiki.cache.ttl-seconds:3600}") long ttlSeconds,
+                             @Value("${wiki.cache.negative-ttl-seconds:300}") long negativeTtlSeconds) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
         this.requestCounter = requestCounter;
+        this.upstreamGuard = upstreamGuard;
+        this.searchCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, SearchResult>() {
+                    @Override
+                    public long expireAfterCreate(String term, SearchResult result, long currentTime) {
+                        return Duration.ofSeconds(result.found() ? ttlSeconds : negativeTtlSeconds).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String term, SearchResult result, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(term, result, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String term, SearchResult result, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public WikiResponse search(String term, String wikipediaApiUrl) {
-        requestCounter.increment();
+        requestCounter.increment("wiki.search");
+        String key = normalize(term);
+        SearchResult cached = searchCache.getIfPresent(key);
+        if (cached != null) {
+            requestCounter.cacheHit("wiki");
+            return cached.response();
+        }
         try {
-            String url = wikipediaApiUrl + term.replace(" ", "%20");
-            String response = restTemplate.getForObject(url, String.class);
+            return load(key, wikipediaApiUrl).response();
+        } catch (Exception e) {
+            return new WikiResponse(term, "Error fetching data from Wikipedia: " + e.getMessage());
+        }
+    }
 
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode pages = root.path("query").path("pages");
-            JsonNode firstPage = pages.elements().next();
+    /**
+     * Concurrent callers for the same key wait on a single load instead of each calling upstream. The
+     * upstream call runs outside the cache, so it holds none of Caffeine's locks while it waits. It asks
+     * for the key itself, so the cached result does not depend on how the first caller spelled the term.
+     */
+    private SearchResult load(String key, String wikipediaApiUrl) {
+        CompletableFuture<SearchResult> load = new CompletableFuture<>();
+        CompletableFuture<SearchResult> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            requestCounter.cacheHit("wiki");
+            return join(existing);
+        }
+        try {
+            // A load that finished between our lookup and registering this one has already stored its result.
+            SearchResult result = searchCache.getIfPresent(key);
+            if (result == null) {
+                result = fetch(key, wikipediaApiUrl);
+                searchCache.put(key, result);
+            }
+            load.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
 
-            String title = firstPage.path("title").asText();
-            String content = firstPage.path("extract").asText();
+    private SearchResult fetch(String term, String wikipediaApiUrl) {
+        requestCounter.databaseLoad("wiki");
+        String url = wikipediaApiUrl + term.replace(" ", "%20");
+        String response = upstreamGuard.call(() -> restTemplate.getForObject(url, String.class));
 
-            if (content.isEmpty()) {
-                content = "No information found for '" + term + "' in Wikipedia";
-            }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        JsonNode pages = root.path("query").path("pages");
+        JsonNode firstPage = pages.elements().next();
 
-            return new WikiResponse(title, content);
+        String title = firstPage.path("title").asText();
+        String content = firstPage.path("extract").asText();
 
-        } catch (Exception e) {
-            return new WikiResponse(term, "Error fetching data from Wikipedia: " + e.getMessage());
+        if (content.isEmpty()) {
+            return new SearchResult(new WikiResponse(title, "No information found for '" + term + "' in Wikipedia"),
+                    false);
         }
+        return new SearchResult(new WikiResponse(title, content), true);
+    }
+
+    private static SearchResult join(CompletableFuture<SearchResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String normalize(String term) {
+        return term.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
-}
\ No newline at end of file
+}
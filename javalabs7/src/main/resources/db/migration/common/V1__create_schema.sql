@@ -0,0 +1,21 @@
+-- IF NOT EXISTS lets databases previously managed by ddl-auto=update adopt this history unchanged.
+CREATE SEQUENCE IF NOT EXISTS article_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comment_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS article (
+    id      BIGINT       NOT NULL,
+    title   VARCHAR(255),
+    content VARCHAR(255),
+    CONSTRAINT article_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS comment (
+    id         BIGINT       NOT NULL,
+    author     VARCHAR(255),
+    text       VARCHAR(255),
+    article_id BIGINT,
+    CONSTRAINT comment_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_comment_article FOREIGN KEY (article_id) REFERENCES article (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_comment_article_id ON comment (article_id);
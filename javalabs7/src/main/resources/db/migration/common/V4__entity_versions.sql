@@ -0,0 +1,5 @@
+-- Optimistic-lock versions and modification times, used for ETag and Last-Modified on reads.
+ALTER TABLE article ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE article ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE comment ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE comment ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
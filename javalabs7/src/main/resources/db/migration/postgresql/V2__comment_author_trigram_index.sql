@@ -0,0 +1,4 @@
+-- Lets LOWER(author) LIKE '%fragment%' use an index instead of scanning every comment of the article.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_comment_author_trgm ON comment USING gin (LOWER(author) gin_trgm_ops);
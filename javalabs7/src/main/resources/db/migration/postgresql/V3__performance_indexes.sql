@@ -0,0 +1,14 @@
+-- Ids used to come from identity columns; move the pooled sequences past existing rows. Hibernate's pooled
+-- optimizer hands out (value - 49 .. value], so the sequence must sit a full block above MAX(id).
+SELECT setval('article_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM article) + 50,
+                                      (SELECT last_value FROM article_seq)));
+SELECT setval('comment_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM comment) + 50,
+                                      (SELECT last_value FROM comment_seq)));
+
+-- Serves findByArticleId and the per-article author filter; supersedes the plain FK index.
+CREATE INDEX IF NOT EXISTS idx_comment_article_lower_author ON comment (article_id, LOWER(author));
+DROP INDEX IF EXISTS idx_comment_article_id;
+
+-- Keyset pages (WHERE id > ? ORDER BY id LIMIT ?) can be answered by index-only scans.
+CREATE INDEX IF NOT EXISTS idx_article_id_covering ON article (id) INCLUDE (title, content);
+CREATE INDEX IF NOT EXISTS idx_comment_id_covering ON comment (id) INCLUDE (author, text, article_id);
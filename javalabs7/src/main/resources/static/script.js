@@ -2,55 +2,53 @@ const API_BASE_URL = 'http://localhost:8080/api';
 
 document.addEventListener('DOMContentLoaded', () => {
     loadArticles();
-    loadComments();
     document.getElementById('article-form').addEventListener('submit', addArticle);
     document.getElementById('comment-form').addEventListener('submit', addComment);
 });
 
 async function loadArticles() {
     try {
-        const response = await fetch(`${API_BASE_URL}/articles`);
+        const response = await fetch(`${API_BASE_URL}/articles?include=comments`);
         const articles = await response.json();
-        const list = document.getElementById('articles-list');
-        list.innerHTML = '';
-        articles.forEach(article => {
-            list.innerHTML += `
-                <div>
-                    ID: ${article.id}<br>
-                    Title: ${article.title}<br>
-                    Content: ${article.content}<br>
-                    Comments: ${article.comments ? article.comments.length : 0}<br><br>
-                </div>
-            `;
-        });
+        renderArticles(articles);
+        renderComments(articles);
     } catch (error) {
         console.error('Error:', error);
     }
 }
 
-async function loadComments() {
-    try {
-        const response = await fetch(`${API_BASE_URL}/articles`);
-        const articles = await response.json();
-        const list = document.getElementById('comments-list');
-        list.innerHTML = '';
-        articles.forEach(article => {
-            if (article.comments && article.comments.length > 0) {
-                article.comments.forEach(comment => {
-                    list.innerHTML += `
-                        <div>
-                            ID: ${comment.id}<br>
-                            Article ID: ${article.id}<br>
-                            Author: ${comment.author}<br>
-                            Text: ${comment.text}<br><br>
-                        </div>
-                    `;
-                });
-            }
-        });
-    } catch (error) {
-        console.error('Error:', error);
-    }
+function renderArticles(articles) {
+    const list = document.getElementById('articles-list');
+    list.innerHTML = '';
+    articles.forEach(article => {
+        list.innerHTML += `
+            <div>
+                ID: ${article.id}<br>
+                Title: ${article.title}<br>
+                Content: ${article.content}<br>
+                Comments: ${article.comments ? article.comments.length : 0}<br><br>
+            </div>
+        `;
+    });
+}
+
+function renderComments(articles) {
+    const list = document.getElementById('comments-list');
+    list.innerHTML = '';
+    articles.forEach(article => {
+        if (article.comments && article.comments.length > 0) {
+            article.comments.forEach(comment => {
+                list.innerHTML += `
+                    <div>
+                        ID: ${comment.id}<br>
+                        Article ID: ${article.id}<br>
+                        Author: ${comment.author}<br>
+                        Text: ${comment.text}<br><br>
+                    </div>
+                `;
+            });
+        }
+    });
 }
 
 async function addArticle(event) {
@@ -65,7 +63,6 @@ async function addArticle(event) {
         });
         document.getElementById('article-form').reset();
         loadArticles();
-        loadComments();
     } catch (error) {
         console.error('Error:', error);
     }
@@ -83,7 +80,7 @@ async function addComment(event) {
             body: JSON.stringify({ author, text })
         });
         document.getElementById('comment-form').reset();
-        loadComments();
+        loadArticles();
     } catch (error) {
         console.error('Error:', error);
     }
@@ -0,0 +1,98 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Entity.Article;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArticleCacheTest {
+
+    private static Article article(long id, String title) {
+        Article article = new Article();
+        article.setId(id);
+        article.setTitle(title);
+        article.setContent("Content " + id);
+        return article;
+    }
+
+    @Test
+    void shouldPutAndGetArticle() {
+        ArticleCache cache = new ArticleCache(100, 0, 0);
+        Article article = article(1L, "Test Article");
+
+        cache.putArticle(article);
+
+        assertSame(article, cache.getArticleById(1L));
+        assertSame(article, cache.getArticleByTitle("TEST ARTICLE"));
+        assertEquals(2, cache.getStats().hitCount());
+    }
+
+    @Test
+    void shouldReindexTitleOnUpdateAndRemove() {
+        ArticleCache cache = new ArticleCache(100, 0, 0);
+        cache.putArticle(article(1L, "Old Title"));
+        Article updated = article(1L, "New Title");
+
+        cache.putArticle(updated);
+
+        assertNull(cache.getArticleByTitle("old title"));
+        assertSame(updated, cache.getArticleByTitle("new title"));
+
+        cache.removeArticle(1L);
+
+        assertNull(cache.getArticleById(1L));
+        assertNull(cache.getArticleByTitle("new title"));
+    }
+
+    @Test
+    void shouldStayWithinMaxEntries() {
+        ArticleCache cache = new ArticleCache(10, 0, 0);
+
+        for (long id = 1; id <= 1000; id++) {
+            cache.putArticle(article(id, "Title " + id));
+        }
+
+        assertTrue(cache.size() <= 10);
+        assertTrue(cache.getStats().evictionCount() >= 990);
+    }
+
+    @Test
+    void shouldStayWithinMaxBytes() {
+        ArticleCache cache = new ArticleCache(0, 4096, 0);
+
+        for (long id = 1; id <= 1000; id++) {
+            cache.putArticle(article(id, "Title " + id));
+        }
+
+        assertTrue(cache.size() < 1000);
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    void shouldStayConsistentUnderConcurrentWriters() throws InterruptedException {
+        ArticleCache cache = new ArticleCache(1000, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (long id = 1; id <= 500; id++) {
+                    cache.putArticle(article(id, "Title " + id));
+                    cache.removeArticle(id);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (long id = 1; id <= 500; id++) {
+            Article cached = cache.getArticleById(id);
+            Article byTitle = cache.getArticleByTitle("Title " + id);
+            assertEquals(cached == null, byTitle == null);
+        }
+    }
+}
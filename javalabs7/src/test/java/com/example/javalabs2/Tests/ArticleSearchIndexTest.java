@@ -0,0 +1,72 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ArticleSearchIndex;
+import com.example.javalabs2.Dto.ArticleSearchHit;
+import com.example.javalabs2.Entity.Article;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArticleSearchIndexTest {
+
+    private static Article article(long id, String title, String content) {
+        Article article = new Article();
+        article.setId(id);
+        article.setTitle(title);
+        article.setContent(content);
+        return article;
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveContentMatches() {
+        ArticleSearchIndex index = new ArticleSearchIndex();
+        index.index(article(1L, "Cooking pasta", "Boil water and add salt. Java is mentioned once here."));
+        index.index(article(2L, "Java concurrency", "Threads, locks and executors in practice."));
+        index.index(article(3L, "Gardening", "Tomatoes need sun."));
+
+        List<ArticleSearchHit> hits = index.search("JAVA", 10);
+
+        assertEquals(List.of(2L, 1L), hits.stream().map(ArticleSearchHit::getId).toList());
+        assertEquals("Java concurrency", hits.get(0).getTitle());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void shouldScoreDocumentsMatchingMoreTermsHigher() {
+        ArticleSearchIndex index = new ArticleSearchIndex();
+        index.index(article(1L, "Spring", "Dependency injection basics"));
+        index.index(article(2L, "Spring Boot", "Boot makes dependency injection easy"));
+        index.index(article(3L, "Autumn", "Leaves fall"));
+
+        List<ArticleSearchHit> hits = index.search("spring boot, injection!", 1);
+
+        assertEquals(1, hits.size());
+        assertEquals(2L, hits.get(0).getId());
+    }
+
+    @Test
+    void shouldReindexOnUpdateAndForgetRemovedArticles() {
+        ArticleSearchIndex index = new ArticleSearchIndex();
+        index.index(article(1L, "Old title", "Kotlin coroutines"));
+        index.index(article(2L, "Other", "Scala implicits"));
+
+        index.index(article(1L, "New title", "Rust ownership"));
+        index.remove(2L);
+
+        assertTrue(index.search("kotlin", 10).isEmpty());
+        assertTrue(index.search("scala", 10).isEmpty());
+        assertEquals(1L, index.search("rust", 10).get(0).getId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownOrBlankQueries() {
+        ArticleSearchIndex index = new ArticleSearchIndex();
+        index.index(article(1L, "Title", "Content"));
+
+        assertTrue(index.search("missing", 10).isEmpty());
+        assertTrue(index.search("  ...  ", 10).isEmpty());
+    }
+}
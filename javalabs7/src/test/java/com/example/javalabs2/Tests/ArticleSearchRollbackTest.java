@@ -0,0 +1,76 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Cache.ArticleSearchIndex;
+import com.example.javalabs2.Cache.CacheInvalidationBus;
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Cache.IdFilter;
+import com.example.javalabs2.Cache.SecondLevelCache;
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Dto.ArticleSearchHit;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Service.ArticleService;
+import com.example.javalabs2.Service.BulkImportService;
+import com.example.javalabs2.Service.CommentIngestService;
+import com.example.javalabs2.Service.RequestCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the usual test transaction, so the service's own transactions commit or roll back. The
+ * content column holds 255 characters, so longer content fails when the transaction is flushed.
+ */
+@DataJpaTest(properties = "id-filter.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ArticleService.class, BulkImportService.class, ArticleCache.class, CommentCache.class, RequestCounter.class,
+        ArticleSearchIndex.class, CacheInvalidationBus.class, SecondLevelCache.class, HibernateCacheConfig.class,
+        CommentIngestService.class, IdFilter.class})
+public class ArticleSearchRollbackTest {
+    private static final String TOO_LONG = "x".repeat(300);
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @AfterEach
+    void shouldCleanUp() {
+        articleRepository.deleteAllInBatch();
+    }
+
+    private static Article article(String title, String content) {
+        Article article = new Article();
+        article.setTitle(title);
+        article.setContent(content);
+        return article;
+    }
+
+    @Test
+    void shouldNotIndexArticleWhoseInsertRolledBack() {
+        assertThrows(RuntimeException.class, () -> articleService.createArticle(article("Zebraphantom", TOO_LONG)));
+
+        assertEquals(0, articleRepository.count());
+        assertTrue(articleService.searchArticles("zebraphantom", 10).isEmpty());
+    }
+
+    @Test
+    void shouldKeepIndexedVersionWhenUpdateRolledBack() {
+        Long id = articleService.createArticle(article("Quokka", "Content")).getId();
+        assertEquals(id, articleService.searchArticles("quokka", 10).get(0).getId());
+
+        assertThrows(RuntimeException.class, () -> articleService.updateArticle(id, article("Wombat", TOO_LONG)));
+
+        assertTrue(articleService.searchArticles("wombat", 10).isEmpty());
+        ArticleSearchHit hit = articleService.searchArticles("quokka", 10).get(0);
+        assertEquals("Quokka", hit.getTitle());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Cache.ArticleSearchIndex;
+import com.example.javalabs2.Cache.CacheInvalidationBus;
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Cache.IdFilter;
+import com.example.javalabs2.Cache.SecondLevelCache;
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Dto.ArticleDto;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Repository.CommentRepository;
+import com.example.javalabs2.Service.ArticleService;
+import com.example.javalabs2.Service.BulkImportService;
+import com.example.javalabs2.Service.CommentIngestService;
+import com.example.javalabs2.Service.RequestCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Rows are set up through the repositories, which the ID filter would not know about.
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "id-filter.enabled=false"})
+@Import({ArticleService.class, BulkImportService.class, ArticleCache.class, CommentCache.class, RequestCounter.class,
+        ArticleSearchIndex.class, CacheInvalidationBus.class, SecondLevelCache.class, HibernateCacheConfig.class,
+        CommentIngestService.class, IdFilter.class})
+public class ArticleServiceStatementCountTest {
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long articleId;
+
+    @BeforeEach
+    void shouldSetUp() {
+        Article article = new Article();
+        article.setTitle("Title");
+        article.setContent("Content");
+        articleId = articleRepository.save(article).getId();
+        for (int i = 0; i < 20; i++) {
+            Comment comment = new Comment();
+            comment.setAuthor("Author " + i);
+            comment.setText("Text " + i);
+            comment.setArticle(article);
+            commentRepository.save(comment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // The article is not in the second-level cache yet, since the test transaction never commits.
+    @Test
+    void shouldUpdateArticleWithTwoStatements() {
+        Article details = new Article();
+        details.setTitle("New Title");
+        details.setContent("New Content");
+
+        Article updated = articleService.updateArticle(articleId, details);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals("New Title", updated.getTitle());
+        assertEquals(1L, updated.getVersion());
+        assertNotNull(updated.getUpdatedAt());
+    }
+
+    @Test
+    void shouldDeleteArticleWithFourStatementsRegardlessOfCommentCount() {
+        assertTrue(articleService.deleteArticle(articleId));
+        entityManager.flush();
+
+        // Comments, the article, its by then empty comment list, and the article delete.
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertTrue(commentRepository.findByArticleId(articleId).isEmpty());
+        assertFalse(articleRepository.existsById(articleId));
+    }
+
+    @Test
+    void shouldAddCommentWithoutLoadingArticleComments() {
+        Comment comment = new Comment();
+        comment.setAuthor("New Author");
+        comment.setText("New Text");
+
+        assertNotNull(articleService.addComment(articleId, comment));
+        entityManager.flush();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void shouldReadArticlePageWithCommentsInTwoStatements() {
+        List<ArticleDto> page = articleService.getArticles(null, 10, true);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(20, page.get(0).getComments().size());
+        assertEquals(articleId, page.get(0).getComments().get(0).getArticleId());
+    }
+
+    @Test
+    void shouldLoadArticlesWithCommentsInTwoStatementsAndServeRepeatFromCache() {
+        List<ArticleDto> result = articleService.getArticlesWithComments(List.of(articleId + 1000, articleId));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, result.size());
+        assertEquals(20, result.get(0).getComments().size());
+
+        statistics.clear();
+        assertEquals(20, articleService.getArticlesWithComments(List.of(articleId)).get(0).getComments().size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldNotInsertCommentForMissingArticle() {
+        Comment comment = new Comment();
+        comment.setAuthor("New Author");
+        comment.setText("New Text");
+
+        assertNull(articleService.addComment(articleId + 1000, comment));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+}
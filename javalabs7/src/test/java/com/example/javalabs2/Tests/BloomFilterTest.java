@@ -0,0 +1,44 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+    private static final int KEY_COUNT = 100_000;
+
+    @Test
+    void shouldContainEveryKeyPut() {
+        BloomFilter filter = new BloomFilter(KEY_COUNT, 0.01);
+        for (long key = 1; key <= KEY_COUNT; key++) {
+            filter.put(key);
+        }
+
+        for (long key = 1; key <= KEY_COUNT; key++) {
+            assertTrue(filter.mightContain(key), "lost key " + key);
+        }
+    }
+
+    @Test
+    void shouldKeepFalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(KEY_COUNT, 0.01);
+        for (long key = 1; key <= KEY_COUNT; key++) {
+            filter.put(key);
+        }
+
+        int falsePositives = 0;
+        for (long key = KEY_COUNT + 1; key <= 2L * KEY_COUNT; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < KEY_COUNT * 0.02, "false positive rate " + falsePositives / (double) KEY_COUNT);
+    }
+
+    @Test
+    void shouldRejectInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Repository.CommentRepository;
+import com.example.javalabs2.Service.BulkImportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "bulk.import.chunk-size=1000"
+})
+@Import({BulkImportService.class, ArticleCache.class, CommentCache.class, HibernateCacheConfig.class})
+public class BulkImportServiceTest {
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportServiceTest.class);
+    private static final int ARTICLE_COUNT = 10_000;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void shouldSetUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldImportArticlesWithBatchedInserts() {
+        List<Article> articles = new ArrayList<>(ARTICLE_COUNT);
+        for (int i = 0; i < ARTICLE_COUNT; i++) {
+            Article article = new Article();
+            article.setTitle("Title " + i);
+            article.setContent("Content " + i);
+            articles.add(article);
+        }
+
+        long start = System.nanoTime();
+        List<Article> saved = bulkImportService.importArticles(articles);
+        long elapsedNanos = System.nanoTime() - start;
+        logger.info("Imported {} articles in {} ms ({} statements, {} rows/s)", ARTICLE_COUNT,
+                elapsedNanos / 1_000_000, statistics.getPrepareStatementCount(),
+                ARTICLE_COUNT * 1_000_000_000L / elapsedNanos);
+
+        assertEquals(ARTICLE_COUNT, saved.size());
+        assertTrue(saved.stream().allMatch(article -> article.getId() != null));
+        assertEquals(ARTICLE_COUNT, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < ARTICLE_COUNT / 10,
+                "expected batched inserts but saw " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(ARTICLE_COUNT, articleRepository.count());
+    }
+
+    @Test
+    void shouldImportCommentsForArticle() {
+        Article article = new Article();
+        article.setTitle("Title");
+        Long articleId = articleRepository.saveAndFlush(article).getId();
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Comment comment = new Comment();
+            comment.setAuthor("Author " + i);
+            comment.setText("Text " + i);
+            comments.add(comment);
+        }
+
+        List<Comment> saved = bulkImportService.importComments(articleId, comments);
+
+        assertEquals(200, saved.size());
+        assertEquals(200, commentRepository.findByArticleId(articleId).size());
+    }
+
+    @Test
+    void shouldNotImportCommentsForMissingArticle() {
+        Comment comment = new Comment();
+        comment.setAuthor("Author");
+
+        assertNull(bulkImportService.importComments(-1L, List.of(comment)));
+        assertEquals(0, commentRepository.count());
+    }
+}
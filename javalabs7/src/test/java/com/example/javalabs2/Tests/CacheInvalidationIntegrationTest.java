@@ -0,0 +1,159 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.CacheInvalidationBus;
+import com.example.javalabs2.Dto.ArticleSearchHit;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Javalabs2Application;
+import com.example.javalabs2.Service.ArticleService;
+import com.example.javalabs2.Service.CommentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two application contexts against one embedded PostgreSQL, standing in for two replicas behind a
+ * load balancer, and checks that writes on one evict or refresh the other's caches.
+ */
+public class CacheInvalidationIntegrationTest {
+    private static final long PROPAGATION_TIMEOUT_MS = 5000;
+
+    private static EmbeddedPostgres postgres;
+    private static ConfigurableApplicationContext firstNode;
+    private static ConfigurableApplicationContext secondNode;
+
+    @BeforeAll
+    static void shouldStartNodes() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        firstNode = startNode();
+        secondNode = startNode();
+    }
+
+    @AfterAll
+    static void shouldStopNodes() throws IOException {
+        secondNode.close();
+        firstNode.close();
+        postgres.close();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(Javalabs2Application.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "cache.invalidation.poll-ms=20",
+                        "logging.level.com.example.javalabs2.Aspect=WARN")
+                .run();
+    }
+
+    private static Article article(String title, String content) {
+        Article article = new Article();
+        article.setTitle(title);
+        article.setContent(content);
+        return article;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + PROPAGATION_TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void shouldEnableBusOnPostgres() {
+        assertTrue(firstNode.getBean(CacheInvalidationBus.class).isEnabled());
+        assertTrue(secondNode.getBean(CacheInvalidationBus.class).isEnabled());
+    }
+
+    @Test
+    void shouldEvictUpdatedAndDeletedArticlesOnPeer() throws InterruptedException {
+        ArticleService first = firstNode.getBean(ArticleService.class);
+        ArticleService second = secondNode.getBean(ArticleService.class);
+        Long id = first.createArticle(article("Original title", "Body")).getId();
+        awaitTrue(() -> second.getArticleById(id) != null, "article created on peer stayed unknown");
+        assertEquals("Original title", second.getArticleById(id).getTitle());
+
+        first.updateArticle(id, article("Updated title", "Body"));
+        awaitTrue(() -> "Updated title".equals(second.getArticleById(id).getTitle()),
+                "peer kept serving the stale article");
+
+        first.deleteArticle(id);
+        awaitTrue(() -> second.getArticleById(id) == null, "peer kept serving the deleted article");
+    }
+
+    @Test
+    void shouldRefreshPeerCommentListsAndComments() throws InterruptedException {
+        ArticleService first = firstNode.getBean(ArticleService.class);
+        ArticleService second = secondNode.getBean(ArticleService.class);
+        CommentService secondComments = secondNode.getBean(CommentService.class);
+        Long articleId = first.createArticle(article("Commented", "Body")).getId();
+        assertTrue(second.getArticleComments(articleId).isEmpty());
+
+        Comment comment = new Comment();
+        comment.setAuthor("Alice");
+        comment.setText("First");
+        Long commentId = first.addComment(articleId, comment).getId();
+        awaitTrue(() -> second.getArticleComments(articleId).size() == 1, "peer kept the stale comment list");
+        assertEquals("Alice", secondComments.getCommentById(commentId).getAuthor());
+
+        Comment edited = new Comment();
+        edited.setAuthor("Bob");
+        edited.setText("Edited");
+        firstNode.getBean(CommentService.class).updateComment(commentId, edited);
+        awaitTrue(() -> "Bob".equals(secondComments.getCommentById(commentId).getAuthor()),
+                "peer kept serving the stale comment");
+        assertEquals(1, secondComments.searchComments(articleId, "bo").size());
+    }
+
+    @Test
+    void shouldFindIdsCreatedOnPeerAndRejectUnknownOnes() throws InterruptedException {
+        ArticleService first = firstNode.getBean(ArticleService.class);
+        ArticleService second = secondNode.getBean(ArticleService.class);
+        CommentService secondComments = secondNode.getBean(CommentService.class);
+        Long articleId = first.createArticle(article("Filtered", "Body")).getId();
+        Comment comment = new Comment();
+        comment.setAuthor("Carol");
+        comment.setText("Text");
+        comment.setArticle(first.getArticleById(articleId));
+        Long commentId = firstNode.getBean(CommentService.class).createComment(comment).getId();
+
+        // The peer learns of the new IDs once their notifications arrive.
+        awaitTrue(() -> second.getArticleById(articleId) != null, "article created on peer stayed unknown");
+        awaitTrue(() -> secondComments.getCommentById(commentId) != null, "comment created on peer stayed unknown");
+        assertEquals("Carol", secondComments.getCommentById(commentId).getAuthor());
+
+        MeterRegistry registry = secondNode.getBean(MeterRegistry.class);
+        double rejected = registry.get("app.id.filter.rejected").tag("entity", "article").functionCounter().count();
+        assertNull(second.getArticleById(articleId + 1_000_000));
+        assertEquals(rejected + 1,
+                registry.get("app.id.filter.rejected").tag("entity", "article").functionCounter().count());
+    }
+
+    @Test
+    void shouldUpdatePeerSearchIndex() throws InterruptedException {
+        ArticleService first = firstNode.getBean(ArticleService.class);
+        ArticleService second = secondNode.getBean(ArticleService.class);
+
+        Long id = first.createArticle(article("Quokka habitats", "Rottnest island")).getId();
+        awaitTrue(() -> second.searchArticles("quokka", 10).stream().map(ArticleSearchHit::getId)
+                .anyMatch(id::equals), "peer search index missed the new article");
+
+        first.updateArticle(id, article("Wombat burrows", "Tasmania"));
+        awaitTrue(() -> second.searchArticles("quokka", 10).isEmpty()
+                && !second.searchArticles("wombat", 10).isEmpty(), "peer search index kept the old text");
+    }
+}
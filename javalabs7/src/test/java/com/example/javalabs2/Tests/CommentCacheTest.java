@@ -0,0 +1,212 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommentCacheTest {
+
+    private static Article article(long id) {
+        Article article = new Article();
+        article.setId(id);
+        return article;
+    }
+
+    private static Comment comment(long id, String author, Article article) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setAuthor(author);
+        comment.setText("Text " + id);
+        comment.setArticle(article);
+        return comment;
+    }
+
+    @Test
+    void shouldNotDuplicateOnRepeatedPut() {
+        CommentCache cache = new CommentCache();
+        Comment comment = comment(1L, "Author", article(1L));
+
+        cache.putComment(comment);
+        cache.putComment(comment);
+
+        assertEquals(1, cache.getCommentsByArticle(1L).size());
+        assertEquals(1, cache.getCommentsByAuthor("AUTHOR").size());
+    }
+
+    @Test
+    void shouldMoveIndexEntriesWhenCommentIsMutatedInPlace() {
+        CommentCache cache = new CommentCache();
+        Comment comment = comment(1L, "Old Author", article(1L));
+        cache.putComment(comment);
+
+        comment.setAuthor("New Author");
+        cache.putComment(comment);
+
+        assertTrue(cache.getCommentsByAuthor("old author").isEmpty());
+        assertEquals(List.of(comment), cache.getCommentsByAuthor("new author"));
+    }
+
+    @Test
+    void shouldRemoveCommentFromAllIndexes() {
+        CommentCache cache = new CommentCache();
+        cache.putComment(comment(1L, "Author", article(1L)));
+        cache.putComment(comment(2L, "Author", article(1L)));
+
+        cache.removeComment(1L);
+
+        assertNull(cache.getCommentById(1L));
+        assertEquals(1, cache.getCommentsByArticle(1L).size());
+        assertEquals(2L, cache.getCommentsByAuthor("author").get(0).getId());
+    }
+
+    @Test
+    void shouldRemoveCommentsByArticle() {
+        CommentCache cache = new CommentCache();
+        cache.putComment(comment(1L, "Author", article(1L)));
+        cache.putComment(comment(2L, "Author", article(1L)));
+        cache.putComment(comment(3L, "Author", article(2L)));
+
+        cache.removeCommentsByArticle(1L);
+
+        assertTrue(cache.getCommentsByArticle(1L).isEmpty());
+        assertEquals(1, cache.getCommentsByAuthor("author").size());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void shouldFindCommentsByAuthorSubstringWithinArticle() {
+        CommentCache cache = new CommentCache();
+        Article first = article(1L);
+        Article second = article(2L);
+        cache.putArticleComments(1L, List.of(
+                comment(1L, "Alice Smith", first),
+                comment(2L, "Bob Smithers", first),
+                comment(3L, "Carol", first),
+                comment(4L, "Al", first)), cache.articleVersion(1L));
+        cache.putComment(comment(5L, "Alice Smith", second));
+
+        assertTrue(cache.isArticleLoaded(1L));
+        assertFalse(cache.isArticleLoaded(2L));
+        assertEquals(List.of(1L, 2L), ids(cache.getCommentsByArticleAndAuthorContaining(1L, "SMITH")));
+        assertEquals(List.of(1L, 4L), ids(cache.getCommentsByArticleAndAuthorContaining(1L, "al")));
+        assertEquals(List.of(1L), ids(cache.getCommentsByArticleAndAuthorContaining(1L, "ice smi")));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(cache.getCommentsByArticleAndAuthorContaining(1L, "")));
+        assertTrue(cache.getCommentsByArticleAndAuthorContaining(1L, "dave").isEmpty());
+    }
+
+    @Test
+    void shouldDropAuthorFromSubstringIndexWhenLastCommentGoes() {
+        CommentCache cache = new CommentCache();
+        Article article = article(1L);
+        Comment comment = comment(1L, "Old Name", article);
+        cache.putArticleComments(1L, List.of(comment), cache.articleVersion(1L));
+
+        comment.setAuthor("New Name");
+        cache.putComment(comment);
+        assertTrue(cache.getCommentsByArticleAndAuthorContaining(1L, "old").isEmpty());
+        assertEquals(List.of(1L), ids(cache.getCommentsByArticleAndAuthorContaining(1L, "new")));
+
+        cache.removeCommentsByArticle(1L);
+        assertFalse(cache.isArticleLoaded(1L));
+        assertTrue(cache.getCommentsByArticleAndAuthorContaining(1L, "new").isEmpty());
+    }
+
+    @Test
+    void shouldDropFillLoadedBeforeWrite() {
+        CommentCache cache = new CommentCache();
+        Article article = article(1L);
+        Comment stale = comment(1L, "Old Name", article);
+        Comment updated = comment(1L, "New Name", article);
+
+        long version = cache.articleVersion(1L);
+        cache.putComment(updated);
+        cache.putArticleComments(1L, List.of(stale), version);
+        cache.putComments(1L, List.of(stale), version);
+
+        assertSame(updated, cache.getCommentById(1L));
+        assertFalse(cache.isArticleLoaded(1L));
+    }
+
+    @Test
+    void shouldNotKeepStaleCommentsWhenFillRacesUpdate() throws Exception {
+        CommentCache cache = new CommentCache();
+        Article article = article(1L);
+        AtomicReference<Comment> database = new AtomicReference<>(comment(1L, "Version 0", article));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 1; round <= 2000; round++) {
+                Comment next = comment(1L, "Version " + round, article);
+                CountDownLatch start = new CountDownLatch(1);
+                // Loads the article's comments the way the services do: version first, then the rows.
+                Future<?> fill = executor.submit(() -> {
+                    start.await();
+                    long version = cache.articleVersion(1L);
+                    Comment row = database.get();
+                    Thread.yield();
+                    cache.putArticleComments(1L, List.of(row), version);
+                    return null;
+                });
+                // Commits the update, then evicts what it changed, as the services do after completion.
+                Future<?> update = executor.submit(() -> {
+                    start.await();
+                    database.set(next);
+                    cache.evictComment(1L, 1L);
+                    return null;
+                });
+                start.countDown();
+                fill.get(5, TimeUnit.SECONDS);
+                update.get(5, TimeUnit.SECONDS);
+
+                Comment cached = cache.getCommentById(1L);
+                if (cached != null) {
+                    assertSame(database.get(), cached, "stale comment cached in round " + round);
+                }
+                assertTrue(cached != null || !cache.isArticleLoaded(1L), "incomplete list in round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Long> ids(List<Comment> comments) {
+        return comments.stream().map(Comment::getId).toList();
+    }
+
+    @Test
+    void shouldStayConsistentUnderConcurrentWriters() throws InterruptedException {
+        CommentCache cache = new CommentCache();
+        Article article = article(1L);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (long id = 1; id <= 1000; id++) {
+                    cache.putComment(comment(id, "Author " + (id % 10), article));
+                    if (id % 2 == 0) {
+                        cache.removeComment(id);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        int byAuthor = 0;
+        for (int a = 0; a < 10; a++) {
+            byAuthor += cache.getCommentsByAuthor("author " + a).size();
+        }
+        assertEquals(cache.size(), cache.getCommentsByArticle(1L).size());
+        assertEquals(cache.size(), byAuthor);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Controller.ArticleController;
+import com.example.javalabs2.Controller.CommentController;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Exception.GlobalExceptionHandler;
+import com.example.javalabs2.Exception.IngestBufferFullException;
+import com.example.javalabs2.Exception.IngestUnavailableException;
+import com.example.javalabs2.Service.ArticleService;
+import com.example.javalabs2.Service.CommentIngestService;
+import com.example.javalabs2.Service.CommentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CommentIngestControllerTest {
+    private static final String TRACKING_ID = "abc";
+    private static final String COMMENT_JSON = "{\"author\":\"Alice\",\"text\":\"Hi\"}";
+
+    @Mock
+    private ArticleService articleService;
+
+    @Mock
+    private CommentService commentService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void shouldSetUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ArticleController(articleService, objectMapper),
+                        new CommentController(commentService, objectMapper))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static Comment savedComment() {
+        Article article = new Article();
+        article.setId(1L);
+        Comment comment = new Comment();
+        comment.setId(7L);
+        comment.setAuthor("Alice");
+        comment.setText("Hi");
+        comment.setArticle(article);
+        return comment;
+    }
+
+    @Test
+    void shouldAcceptQueuedCommentWithStatusLocation() throws Exception {
+        when(articleService.addCommentAsync(eq(1L), any(Comment.class)))
+                .thenReturn(new CommentIngestService.Ticket(TRACKING_ID, new CompletableFuture<>()));
+
+        mockMvc.perform(post("/api/articles/1/comments/async")
+                        .contentType(MediaType.APPLICATION_JSON).content(COMMENT_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/comments/ingest/" + TRACKING_ID))
+                .andExpect(jsonPath("$.trackingId").value(TRACKING_ID))
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andExpect(jsonPath("$.comment").doesNotExist());
+    }
+
+    @Test
+    void shouldQueueCommentUnderArticleIdParameter() throws Exception {
+        when(commentService.createCommentAsync(eq(1L), any(Comment.class)))
+                .thenReturn(new CommentIngestService.Ticket(TRACKING_ID, new CompletableFuture<>()));
+
+        mockMvc.perform(post("/api/comments/async").param("articleId", "1")
+                        .contentType(MediaType.APPLICATION_JSON).content(COMMENT_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/comments/ingest/" + TRACKING_ID));
+    }
+
+    @Test
+    void shouldAnswerBadRequestWhenArticleIdIsMissing() throws Exception {
+        when(commentService.createCommentAsync(isNull(), any(Comment.class)))
+                .thenThrow(new IllegalArgumentException("Article ID is required"));
+
+        mockMvc.perform(post("/api/comments/async").contentType(MediaType.APPLICATION_JSON).content(COMMENT_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Article ID is required"));
+    }
+
+    @Test
+    void shouldAnswerTooManyRequestsWhenBufferIsFull() throws Exception {
+        when(commentService.createCommentAsync(eq(1L), any(Comment.class)))
+                .thenThrow(new IngestBufferFullException("Comment ingestion buffer is full, retry later"));
+
+        mockMvc.perform(post("/api/comments/async").param("articleId", "1")
+                        .contentType(MediaType.APPLICATION_JSON).content(COMMENT_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenIngestionIsOff() throws Exception {
+        when(articleService.addCommentAsync(eq(1L), any(Comment.class)))
+                .thenThrow(new IngestUnavailableException("Asynchronous comment ingestion is disabled"));
+
+        mockMvc.perform(post("/api/articles/1/comments/async")
+                        .contentType(MediaType.APPLICATION_JSON).content(COMMENT_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Asynchronous comment ingestion is disabled"));
+    }
+
+    @Test
+    void shouldWaitForSavedComment() throws Exception {
+        CompletableFuture<Comment> result = new CompletableFuture<>();
+        when(commentService.getIngestTicket(TRACKING_ID))
+                .thenReturn(new CommentIngestService.Ticket(TRACKING_ID, result));
+
+        MvcResult pending = mockMvc.perform(get("/api/comments/ingest/" + TRACKING_ID).param("waitMs", "5000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.complete(savedComment());
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("SAVED"))
+                .andExpect(jsonPath("$.comment.id").value(7))
+                .andExpect(jsonPath("$.comment.articleId").value(1));
+    }
+
+    @Test
+    void shouldReportQueuedAndMissingArticleStates() throws Exception {
+        CompletableFuture<Comment> result = new CompletableFuture<>();
+        when(commentService.getIngestTicket(TRACKING_ID))
+                .thenReturn(new CommentIngestService.Ticket(TRACKING_ID, result));
+
+        MvcResult queued = mockMvc.perform(get("/api/comments/ingest/" + TRACKING_ID)).andReturn();
+        mockMvc.perform(asyncDispatch(queued)).andExpect(jsonPath("$.state").value("QUEUED"));
+
+        result.complete(null);
+        MvcResult missing = mockMvc.perform(get("/api/comments/ingest/" + TRACKING_ID)).andReturn();
+        mockMvc.perform(asyncDispatch(missing)).andExpect(jsonPath("$.state").value("ARTICLE_NOT_FOUND"));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownTrackingId() throws Exception {
+        MvcResult unknown = mockMvc.perform(get("/api/comments/ingest/missing")).andReturn();
+        mockMvc.perform(asyncDispatch(unknown)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/comments/ingest/" + TRACKING_ID).param("waitMs", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+}
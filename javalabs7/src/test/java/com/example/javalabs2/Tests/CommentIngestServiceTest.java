@@ -0,0 +1,178 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Exception.IngestBufferFullException;
+import com.example.javalabs2.Exception.IngestUnavailableException;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Repository.CommentRepository;
+import com.example.javalabs2.Service.CommentIngestService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the usual test transaction, since the writer commits on its own thread. The service
+ * bean outlives each test, so the batch listener is registered once and reports to static fields.
+ */
+@DataJpaTest(properties = {
+        "comment.ingest.enabled=true",
+        "comment.ingest.capacity=" + CommentIngestServiceTest.CAPACITY,
+        "comment.ingest.batch-size=" + CommentIngestServiceTest.BATCH_SIZE,
+        "comment.ingest.flush-ms=200"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CommentIngestService.class, HibernateCacheConfig.class})
+public class CommentIngestServiceTest {
+    static final int CAPACITY = 1000;
+    static final int BATCH_SIZE = 200;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private static volatile CountDownLatch writerEntered;
+    private static volatile CountDownLatch writerReleased;
+    private static boolean listening;
+
+    @Autowired
+    private CommentIngestService commentIngestService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Long articleId;
+
+    @BeforeEach
+    void shouldSetUp() {
+        if (!listening) {
+            commentIngestService.onBatchSaved(comments -> {
+                batchSizes.add(comments.size());
+                CountDownLatch released = writerReleased;
+                if (released != null) {
+                    writerEntered.countDown();
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            listening = true;
+        }
+        batchSizes.clear();
+        commentIngestService.start();
+        Article article = new Article();
+        article.setTitle("Title");
+        article.setContent("Content");
+        articleId = articleRepository.save(article).getId();
+    }
+
+    @AfterEach
+    void shouldCleanUp() throws InterruptedException {
+        commentIngestService.stop();
+        commentRepository.deleteAllInBatch();
+        articleRepository.deleteAllInBatch();
+    }
+
+    private static Comment comment(String author) {
+        Comment comment = new Comment();
+        comment.setAuthor(author);
+        comment.setText("Text");
+        return comment;
+    }
+
+    private static Comment await(CommentIngestService.Ticket ticket) throws Exception {
+        return ticket.result().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldSaveQueuedCommentsInBatches() throws Exception {
+        int count = 2 * BATCH_SIZE + 50;
+        List<CommentIngestService.Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tickets.add(commentIngestService.submit(articleId, comment("Author " + i)));
+        }
+
+        for (CommentIngestService.Ticket ticket : tickets) {
+            Comment saved = await(ticket);
+            assertNotNull(saved.getId());
+            assertEquals(articleId, saved.getArticle().getId());
+            assertSame(ticket, commentIngestService.findTicket(ticket.trackingId()));
+        }
+        assertEquals(count, commentRepository.findByArticleId(articleId).size());
+        assertEquals(count, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= BATCH_SIZE));
+        assertTrue(batchSizes.size() < count / 10, "expected batches but saw " + batchSizes);
+    }
+
+    @Test
+    void shouldCompleteWithNullWhenArticleIsMissing() throws Exception {
+        CommentIngestService.Ticket missing = commentIngestService.submit(articleId + 1000, comment("Lost"));
+        CommentIngestService.Ticket found = commentIngestService.submit(articleId, comment("Kept"));
+
+        assertNull(await(missing));
+        assertNotNull(await(found).getId());
+        assertEquals(List.of("Kept"),
+                commentRepository.findAll().stream().map(Comment::getAuthor).toList());
+    }
+
+    @Test
+    void shouldRefuseCommentsAsUnavailableWhileStoppedOrDisabled() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        commentIngestService.bindTo(registry);
+        commentIngestService.stop();
+
+        assertThrows(IngestUnavailableException.class,
+                () -> commentIngestService.submit(articleId, comment("After shutdown")));
+        CommentIngestService disabled = new CommentIngestService(articleRepository, commentRepository, null, null,
+                false, CAPACITY, BATCH_SIZE, 200, 600);
+        assertThrows(IngestUnavailableException.class, () -> disabled.submit(articleId, comment("Disabled")));
+        assertEquals(0, registry.get("app.comment.ingest.rejected").functionCounter().count());
+    }
+
+    @Test
+    void shouldRejectCommentsWhileBufferIsFull() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        commentIngestService.bindTo(registry);
+        writerEntered = new CountDownLatch(1);
+        writerReleased = new CountDownLatch(1);
+        List<CommentIngestService.Ticket> tickets = new ArrayList<>();
+        try {
+            tickets.add(commentIngestService.submit(articleId, comment("First")));
+            assertTrue(writerEntered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            for (int i = 0; i < CAPACITY; i++) {
+                tickets.add(commentIngestService.submit(articleId, comment("Queued " + i)));
+            }
+            assertEquals(CAPACITY, registry.get("app.comment.ingest.queued").gauge().value());
+
+            assertThrows(IngestBufferFullException.class,
+                    () -> commentIngestService.submit(articleId, comment("Rejected")));
+            assertEquals(1, registry.get("app.comment.ingest.rejected").functionCounter().count());
+        } finally {
+            writerReleased.countDown();
+            writerReleased = null;
+        }
+
+        for (CommentIngestService.Ticket ticket : tickets) {
+            assertNotNull(await(ticket));
+        }
+        assertEquals(CAPACITY + 1, commentRepository.count());
+    }
+}
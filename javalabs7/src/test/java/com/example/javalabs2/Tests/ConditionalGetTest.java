@@ -0,0 +1,127 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Controller.ArticleController;
+import com.example.javalabs2.Controller.CommentController;
+import com.example.javalabs2.Dto.ArticleDto;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Service.ArticleService;
+import com.example.javalabs2.Service.CommentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConditionalGetTest {
+    private static final Instant UPDATED_AT = Instant.parse("2024-05-01T10:15:30Z");
+
+    @Mock
+    private ArticleService articleService;
+
+    @Mock
+    private CommentService commentService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void shouldSetUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ArticleController(articleService, objectMapper),
+                new CommentController(commentService, objectMapper)).build();
+    }
+
+    private static ArticleDto article() {
+        return new ArticleDto(1L, "Title", "Content", null, 3L, UPDATED_AT);
+    }
+
+    @Test
+    void shouldSendETagAndLastModifiedForArticle() throws Exception {
+        when(articleService.getArticle(1L, false)).thenReturn(article());
+
+        mockMvc.perform(get("/api/articles/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, UPDATED_AT.toEpochMilli()))
+                .andExpect(jsonPath("$.title").value("Title"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForMatchingArticleETag() throws Exception {
+        when(articleService.getArticle(1L, false)).thenReturn(article());
+
+        mockMvc.perform(get("/api/articles/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/articles/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldNotTagArticleWithComments() throws Exception {
+        ArticleDto article = article();
+        article.setComments(List.of());
+        when(articleService.getArticle(1L, true)).thenReturn(article);
+
+        mockMvc.perform(get("/api/articles/1").param("include", "comments")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldSendNewETagForUpdatedArticle() throws Exception {
+        Article updated = new Article();
+        updated.setId(1L);
+        updated.setTitle("Title");
+        updated.setContent("Content");
+        updated.setVersion(4L);
+        updated.setUpdatedAt(UPDATED_AT);
+        when(articleService.updateArticle(eq(1L), any(Article.class))).thenReturn(updated);
+
+        // Conditional headers only short-circuit GET and HEAD, so an update is always answered in full.
+        mockMvc.perform(put("/api/articles/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Title\",\"content\":\"Content\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, UPDATED_AT.toEpochMilli()))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedComment() throws Exception {
+        Comment comment = new Comment();
+        comment.setId(7L);
+        comment.setAuthor("Author");
+        comment.setText("Text");
+        comment.setVersion(0L);
+        comment.setUpdatedAt(UPDATED_AT);
+        when(commentService.getCommentById(7L)).thenReturn(comment);
+
+        mockMvc.perform(get("/api/comments/7")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 May 2024 10:15:30 GMT"))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/comments/7").header(HttpHeaders.IF_NONE_MATCH, "\"7-0\""))
+                .andExpect(status().isNotModified());
+    }
+}
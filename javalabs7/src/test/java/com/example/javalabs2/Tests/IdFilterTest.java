@@ -0,0 +1,195 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Cache.ArticleSearchIndex;
+import com.example.javalabs2.Cache.CacheInvalidationBus;
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Cache.IdFilter;
+import com.example.javalabs2.Cache.SecondLevelCache;
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Repository.CommentRepository;
+import com.example.javalabs2.Service.ArticleService;
+import com.example.javalabs2.Service.BulkImportService;
+import com.example.javalabs2.Service.CommentIngestService;
+import com.example.javalabs2.Service.CommentService;
+import com.example.javalabs2.Service.RequestCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Runs without the usual test transaction, since the filters are built from committed rows. Rows saved
+ * through the repositories bypass the filters, so each test builds them afresh.
+ */
+@DataJpaTest(properties = {
+        "id-filter.expected-ids=" + IdFilterTest.EXPECTED_IDS,
+        "id-filter.false-positive-rate=0.0001"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({IdFilter.class, ArticleService.class, CommentService.class, BulkImportService.class, ArticleCache.class,
+        CommentCache.class, RequestCounter.class, ArticleSearchIndex.class, CacheInvalidationBus.class,
+        SecondLevelCache.class, HibernateCacheConfig.class, CommentIngestService.class})
+public class IdFilterTest {
+    static final int EXPECTED_IDS = 8;
+    private static final long TIMEOUT_MS = 5000;
+
+    @Autowired
+    private IdFilter idFilter;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Long articleId;
+    private Long commentId;
+
+    @BeforeEach
+    void shouldSetUp() {
+        Article article = articleRepository.save(article("Title"));
+        articleId = article.getId();
+        Comment comment = new Comment();
+        comment.setAuthor("Alice");
+        comment.setText("Text");
+        comment.setArticle(article);
+        commentId = commentRepository.save(comment).getId();
+        idFilter.build();
+    }
+
+    @AfterEach
+    void shouldCleanUp() {
+        commentRepository.deleteAllInBatch();
+        articleRepository.deleteAllInBatch();
+    }
+
+    private static Article article(String title) {
+        Article article = new Article();
+        article.setTitle(title);
+        article.setContent("Content");
+        return article;
+    }
+
+    private static Comment comment(String author, Article article) {
+        Comment comment = new Comment();
+        comment.setAuthor(author);
+        comment.setText("Text");
+        comment.setArticle(article);
+        return comment;
+    }
+
+    @Test
+    void shouldAnswerUnknownIdsWithoutQuerying() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertNull(articleService.getArticleById(articleId + 1000));
+        assertNull(articleService.updateArticle(articleId + 1000, article("Other")));
+        assertNull(articleService.addComment(articleId + 1000, new Comment()));
+        assertFalse(articleService.deleteArticle(articleId + 1000));
+        assertNull(commentService.getCommentById(commentId + 1000));
+        assertFalse(commentService.deleteComment(commentId + 1000));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals("Title", articleService.getArticleById(articleId).getTitle());
+        assertEquals("Alice", commentService.getCommentById(commentId).getAuthor());
+    }
+
+    @Test
+    void shouldRejectUnknownIdsWithoutDatabaseOrBus() {
+        DataSource spiedDataSource = spy(dataSource);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+        IdFilter filter = new IdFilter(spiedDataSource, transactionManager, invalidationBus, true,
+                EXPECTED_IDS, 0.0001);
+        filter.build();
+        assertTrue(filter.articles().mightContain(articleId));
+        clearInvocations(spiedDataSource, transactionManager, invalidationBus);
+
+        assertFalse(filter.articles().mightContain(articleId + 1000));
+        assertFalse(filter.comments().mightContain(commentId + 1000));
+
+        verifyNoInteractions(spiedDataSource, transactionManager, invalidationBus);
+    }
+
+    @Test
+    void shouldFindIdsCreatedThroughServices() {
+        Long createdArticle = articleService.createArticle(article("Created")).getId();
+        Comment comment = new Comment();
+        comment.setAuthor("Bob");
+        comment.setText("Text");
+        Long createdComment = articleService.addComment(createdArticle, comment).getId();
+
+        assertTrue(idFilter.articles().mightContain(createdArticle));
+        assertTrue(idFilter.comments().mightContain(createdComment));
+        assertEquals("Bob", commentService.getCommentById(createdComment).getAuthor());
+    }
+
+    @Test
+    void shouldFindCommentsSavedWithTheirArticle() {
+        Article single = article("Single");
+        single.setComments(new ArrayList<>(List.of(comment("Carol", single))));
+        Long singleComment = articleService.createArticle(single).getComments().get(0).getId();
+        Article batched = article("Batched");
+        batched.setComments(new ArrayList<>(List.of(comment("Dave", null))));
+        Long batchedComment = articleService.createArticles(List.of(batched)).get(0).getComments().get(0).getId();
+
+        assertEquals("Carol", commentService.getCommentById(singleComment).getAuthor());
+        assertEquals("Dave", commentService.getCommentById(batchedComment).getAuthor());
+    }
+
+    @Test
+    void shouldDropDeletedIdsOnceRebuilt() throws InterruptedException {
+        assertTrue(articleService.deleteArticle(articleId));
+        assertTrue(idFilter.articles().mightContain(articleId));
+
+        // Enough new articles to use up the headroom the filter was sized with, which triggers a rebuild.
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < EXPECTED_IDS; i++) {
+            created.add(articleService.createArticle(article("Article")).getId());
+        }
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (idFilter.articles().mightContain(articleId)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("deleted article stayed in the filter");
+            }
+            Thread.sleep(10);
+        }
+        assertTrue(created.stream().allMatch(idFilter.articles()::mightContain));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Aspect.LoggingAspect;
+import com.example.javalabs2.Config.ConnectionHoldTimer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LoggingAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private ConnectionHoldTimer connectionHoldTimer;
+    private LoggingAspect aspect;
+    private ProceedingJoinPoint joinPoint;
+    private Object payload;
+
+    @BeforeEach
+    void shouldSetUp() throws NoSuchMethodException {
+        registry = new SimpleMeterRegistry();
+        connectionHoldTimer = new ConnectionHoldTimer();
+        aspect = new LoggingAspect(registry, connectionHoldTimer, 1.0, 500);
+        Method method = String.class.getMethod("length");
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        payload = mock(Object.class);
+    }
+
+    @Test
+    void shouldRecordLatencyWithoutTouchingPayload() throws Throwable {
+        when(joinPoint.proceed()).thenReturn(payload);
+
+        assertSame(payload, aspect.logMethodExecution(joinPoint));
+        aspect.logMethodExecution(joinPoint);
+
+        Timer timer = registry.get("app.controller.latency")
+                .tag("endpoint", "String.length")
+                .tag("outcome", "success")
+                .timer();
+        assertEquals(2, timer.count());
+        verify(joinPoint, never()).getArgs();
+        verifyNoInteractions(payload);
+    }
+
+    @Test
+    void shouldRecordErrorsSeparately() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new IllegalArgumentException("bad"));
+
+        assertThrows(IllegalArgumentException.class, () -> aspect.logMethodExecution(joinPoint));
+
+        Timer timer = registry.get("app.controller.latency").tag("outcome", "error").timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void shouldRecordConnectionHoldTimeOfCall() throws Throwable {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        DataSource dataSource = connectionHoldTimer.wrap(target);
+        try (Connection outside = dataSource.getConnection()) {
+            Thread.sleep(50);
+        }
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            try (Connection held = dataSource.getConnection()) {
+                Thread.sleep(20);
+            }
+            return payload;
+        });
+
+        aspect.logMethodExecution(joinPoint);
+
+        Timer timer = registry.get("app.controller.connection.hold").tag("endpoint", "String.length").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 20);
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) < 50);
+        verify(connection, times(2)).close();
+    }
+}
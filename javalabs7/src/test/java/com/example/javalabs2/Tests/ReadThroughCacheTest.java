@@ -0,0 +1,141 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ReadThroughCache;
+import com.example.javalabs2.Service.RequestCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadThroughCacheTest {
+
+    private final Map<Long, String> store = new ConcurrentHashMap<>();
+    private final RequestCounter requestCounter = new RequestCounter();
+    private final ReadThroughCache<String> cache = new ReadThroughCache<>("test", store::get, store::put,
+            store::remove, requestCounter);
+
+    @Test
+    void shouldLoadOnceAndServeLaterReadsFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(1L, id -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get(1L, id -> "v" + loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals(Map.of("test", 1L), requestCounter.getCacheHits());
+        assertEquals(Map.of("test", 1L), requestCounter.getDatabaseLoads());
+    }
+
+    @Test
+    void shouldCoalesceConcurrentMissesForSameKey() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> cache.get(1L, id -> {
+                loads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "loaded";
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<String> result : results) {
+            assertEquals("loaded", result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldNotStoreLoadThatRacedWithWrite() {
+        String loaded = cache.get(1L, id -> {
+            cache.put(1L, "new");
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEquals("new", store.get(1L));
+    }
+
+    @Test
+    void shouldNotStoreLoadThatRacedWithInvalidation() {
+        cache.get(1L, id -> {
+            cache.invalidate(1L);
+            return "stale";
+        });
+
+        assertNull(store.get(1L));
+        assertEquals("fresh", cache.get(1L, id -> "fresh"));
+    }
+
+    @Test
+    void shouldPropagateLoaderFailureAndAllowRetry() {
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, id -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("ok", cache.get(1L, id -> "ok"));
+    }
+
+    @Test
+    void shouldLoadAllMissesInOneCall() {
+        store.put(1L, "cached");
+        List<List<Long>> calls = new ArrayList<>();
+
+        Map<Long, String> result = cache.getAll(List.of(1L, 2L, 3L, 2L), keys -> {
+            calls.add(List.copyOf(keys));
+            return Map.of(2L, "loaded");
+        });
+
+        assertEquals(Map.of(1L, "cached", 2L, "loaded"), result);
+        assertEquals(List.of(List.of(2L, 3L)), calls);
+        assertEquals("loaded", store.get(2L));
+        assertFalse(store.containsKey(3L));
+    }
+
+    @Test
+    void shouldNotStoreBulkLoadThatRacedWithInvalidation() {
+        Map<Long, String> result = cache.getAll(List.of(1L), keys -> {
+            cache.invalidate(1L);
+            return Map.of(1L, "stale");
+        });
+
+        assertEquals("stale", result.get(1L));
+        assertNull(store.get(1L));
+    }
+
+    @Test
+    void shouldEvictPutWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.put(1L, "uncommitted");
+            assertEquals("uncommitted", store.get(1L));
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(store.get(1L));
+    }
+}
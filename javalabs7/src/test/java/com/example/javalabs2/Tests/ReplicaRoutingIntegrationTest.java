@@ -0,0 +1,197 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Config.ReplicaRoutingDataSource;
+import com.example.javalabs2.Dto.ArticleDto;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Javalabs2Application;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Service.ArticleService;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the application against two in-memory H2 databases standing in for a primary and its replica.
+ * The replica never receives the primary's writes and holds an article and comment of its own, so
+ * every read shows which database served it. Its lag is whatever the test stores in a {@code replica_lag} table.
+ */
+public class ReplicaRoutingIntegrationTest {
+    private static final long TIMEOUT_MS = 5000;
+    private static final long REPLICA_ONLY_ID = 1_000_000L;
+    private static final String REPLICA_ONLY_TITLE = "Replica only";
+
+    private static JdbcTemplate replica;
+    private static ConfigurableApplicationContext context;
+    private static ArticleService articleService;
+
+    @BeforeAll
+    static void shouldStartWithReplica() {
+        String primaryUrl = "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String replicaUrl = "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(replicaUrl, "sa", "").locations("classpath:db/migration/common").load().migrate();
+        replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", ""));
+        replica.execute("CREATE TABLE replica_lag (lag_ms BIGINT)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+        replica.update("INSERT INTO article (id, title, content) VALUES (?, ?, 'Body')", REPLICA_ONLY_ID,
+                REPLICA_ONLY_TITLE);
+        replica.update("INSERT INTO comment (id, author, text, article_id) VALUES (?, 'Alice', 'Hi', ?)",
+                REPLICA_ONLY_ID, REPLICA_ONLY_ID);
+
+        context = new SpringApplicationBuilder(Javalabs2Application.class)
+                .web(WebApplicationType.NONE)
+                // Arguments, since default properties would lose to application.properties.
+                .run(
+                        "--spring.datasource.url=" + primaryUrl,
+                        "--spring.datasource.username=sa",
+                        "--datasource.replica.urls=" + replicaUrl,
+                        "--datasource.replica.lag-query=SELECT lag_ms FROM replica_lag",
+                        "--datasource.replica.max-lag-ms=1000",
+                        "--datasource.replica.lag-check-ms=100",
+                        "--datasource.replica.sticky-ms=60000",
+                        "--logging.level.com.example.javalabs2.Aspect=WARN");
+        articleService = context.getBean(ArticleService.class);
+    }
+
+    @AfterAll
+    static void shouldStop() {
+        context.close();
+    }
+
+    @AfterEach
+    void resetRequestAndLag() {
+        RequestContextHolder.resetRequestAttributes();
+        replica.update("UPDATE replica_lag SET lag_ms = 0");
+    }
+
+    private static Article article(String title) {
+        Article article = new Article();
+        article.setTitle(title);
+        article.setContent("Body");
+        return article;
+    }
+
+    private static List<String> titles() {
+        return articleService.getArticles(null, 1000, false).stream().map(ArticleDto::getTitle).toList();
+    }
+
+    private static MockHttpServletResponse bindRequest(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void shouldServeReadOnlyServiceMethodsFromReplica() throws InterruptedException {
+        awaitTrue(() -> titles().contains(REPLICA_ONLY_TITLE), "read-only page was not served by the replica");
+        // Reads inside write transactions stay on the primary, which does not have this article.
+        Comment comment = new Comment();
+        comment.setAuthor("Alice");
+        comment.setText("Hi");
+        assertNull(articleService.addComment(REPLICA_ONLY_ID, comment));
+    }
+
+    @Test
+    void shouldWriteToPrimaryAndPinWritingSessionToIt() throws InterruptedException {
+        MockHttpServletResponse response = bindRequest();
+        articleService.createArticle(article("Fresh write"));
+        assertTrue(titles().contains("Fresh write"));
+        Cookie sticky = response.getCookie(ReplicaRoutingDataSource.STICKY_COOKIE);
+        assertNotNull(sticky);
+        RequestContextHolder.resetRequestAttributes();
+
+        assertTrue(titles().contains(REPLICA_ONLY_TITLE), "the write pinned other sessions to the primary");
+        bindRequest(sticky);
+        List<String> titles = titles();
+        assertTrue(titles.contains("Fresh write"));
+        assertFalse(titles.contains(REPLICA_ONLY_TITLE));
+    }
+
+    @Test
+    void shouldKeepOtherSessionsOnReplicaRightAfterWrite() throws InterruptedException {
+        awaitTrue(() -> titles().contains(REPLICA_ONLY_TITLE), "read-only page was not served by the replica");
+        bindRequest();
+        articleService.createArticle(article("Another session's write"));
+        RequestContextHolder.resetRequestAttributes();
+
+        bindRequest();
+        assertTrue(titles().contains(REPLICA_ONLY_TITLE), "the write pinned another session to the primary");
+        RequestContextHolder.resetRequestAttributes();
+        assertTrue(titles().contains(REPLICA_ONLY_TITLE), "the write pinned requestless reads to the primary");
+    }
+
+    @Test
+    void shouldFillCachesFromPrimary() throws InterruptedException {
+        awaitTrue(() -> titles().contains(REPLICA_ONLY_TITLE), "read-only page was not served by the replica");
+
+        assertTrue(articleService.getArticleComments(REPLICA_ONLY_ID).isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreForgedStickyCookies() throws InterruptedException {
+        MockHttpServletResponse response = bindRequest();
+        articleService.createArticle(article("Signed write"));
+        String signed = response.getCookie(ReplicaRoutingDataSource.STICKY_COOKIE).getValue();
+        RequestContextHolder.resetRequestAttributes();
+        assertTrue(titles().contains(REPLICA_ONLY_TITLE), "the write pinned other sessions to the primary");
+
+        long farFuture = System.currentTimeMillis() + 3_600_000;
+        String extended = farFuture + signed.substring(signed.indexOf('.'));
+        for (String forged : List.of(String.valueOf(farFuture), extended, farFuture + ".")) {
+            bindRequest(new Cookie(ReplicaRoutingDataSource.STICKY_COOKIE, forged));
+            assertTrue(titles().contains(REPLICA_ONLY_TITLE), "cookie " + forged + " pinned the session");
+        }
+    }
+
+    @Test
+    void shouldKeepReadOnlyRepositoryTransactionsOnPrimary() throws InterruptedException {
+        awaitTrue(() -> titles().contains(REPLICA_ONLY_TITLE), "read-only page was not served by the replica");
+
+        List<String> titles = context.getBean(ArticleRepository.class).findAll().stream()
+                .map(Article::getTitle)
+                .toList();
+        assertFalse(titles.contains(REPLICA_ONLY_TITLE));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhileReplicaLags() throws InterruptedException {
+        awaitTrue(() -> titles().contains(REPLICA_ONLY_TITLE), "read-only page was not served by the replica");
+        replica.update("UPDATE replica_lag SET lag_ms = 5000");
+        awaitTrue(() -> !titles().contains(REPLICA_ONLY_TITLE), "lagging replica kept serving reads");
+
+        replica.update("UPDATE replica_lag SET lag_ms = 0");
+        awaitTrue(() -> titles().contains(REPLICA_ONLY_TITLE), "caught-up replica was not used again");
+    }
+}
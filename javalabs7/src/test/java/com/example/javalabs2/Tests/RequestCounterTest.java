@@ -0,0 +1,83 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Service.RequestCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCounterTest {
+
+    @Test
+    void shouldCountPerOperationAcrossThreads() throws InterruptedException {
+        RequestCounter requestCounter = new RequestCounter();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    requestCounter.increment(i % 2 == 0 ? "article.getById" : "comment.getById");
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, requestCounter.getCount());
+        assertEquals(40_000, requestCounter.getOperationCounts().get("article.getById"));
+        assertEquals(40_000, requestCounter.getOperationCounts().get("comment.getById"));
+    }
+
+    @Test
+    void shouldExposeCountersThroughMeterRegistry() {
+        RequestCounter requestCounter = new RequestCounter();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        requestCounter.increment("article.getById");
+        requestCounter.bindTo(registry);
+
+        requestCounter.increment("article.getById");
+        requestCounter.cacheHit("article");
+        requestCounter.databaseLoad("article");
+        requestCounter.databaseLoad("article");
+
+        assertEquals(2.0, registry.get("app.requests").tag("operation", "article.getById").functionCounter().count());
+        assertEquals(2.0, registry.get("app.requests.total").functionCounter().count());
+        assertEquals(1.0, registry.get("app.cache.lookups").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("app.cache.lookups").tag("result", "db").functionCounter().count());
+    }
+
+    @Test
+    void shouldResetAllCounters() {
+        RequestCounter requestCounter = new RequestCounter();
+        requestCounter.increment("wiki.search");
+        requestCounter.cacheHit("article");
+
+        requestCounter.reset();
+
+        assertEquals(0, requestCounter.getCount());
+        assertEquals(0L, requestCounter.getOperationCounts().get("wiki.search"));
+        assertEquals(0L, requestCounter.getCacheHits().get("article"));
+    }
+
+    @Test
+    void shouldKeepMeterCountsAcrossReset() {
+        RequestCounter requestCounter = new RequestCounter();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        requestCounter.bindTo(registry);
+        requestCounter.increment("wiki.search");
+        requestCounter.cacheHit("article");
+
+        requestCounter.reset();
+        requestCounter.increment("wiki.search");
+
+        assertEquals(1, requestCounter.getCount());
+        assertEquals(1L, requestCounter.getOperationCounts().get("wiki.search"));
+        assertEquals(2.0, registry.get("app.requests").tag("operation", "wiki.search").functionCounter().count());
+        assertEquals(2.0, registry.get("app.requests.total").functionCounter().count());
+        assertEquals(1.0, registry.get("app.cache.lookups").tag("result", "hit").functionCounter().count());
+    }
+}
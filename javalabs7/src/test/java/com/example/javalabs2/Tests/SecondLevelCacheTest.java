@@ -0,0 +1,184 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Cache.ArticleCache;
+import com.example.javalabs2.Cache.ArticleSearchIndex;
+import com.example.javalabs2.Cache.CacheInvalidationBus;
+import com.example.javalabs2.Cache.CommentCache;
+import com.example.javalabs2.Cache.IdFilter;
+import com.example.javalabs2.Cache.SecondLevelCache;
+import com.example.javalabs2.Config.HibernateCacheConfig;
+import com.example.javalabs2.Entity.Article;
+import com.example.javalabs2.Entity.Comment;
+import com.example.javalabs2.Repository.ArticleRepository;
+import com.example.javalabs2.Repository.CommentRepository;
+import com.example.javalabs2.Service.ArticleService;
+import com.example.javalabs2.Service.BulkImportService;
+import com.example.javalabs2.Service.CommentIngestService;
+import com.example.javalabs2.Service.RequestCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the usual test transaction: the second-level cache only takes entries from committed
+ * transactions.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({HibernateCacheConfig.class, SecondLevelCache.class, ArticleService.class, BulkImportService.class,
+        ArticleCache.class, CommentCache.class, RequestCounter.class, ArticleSearchIndex.class,
+        CacheInvalidationBus.class, CommentIngestService.class, IdFilter.class})
+public class SecondLevelCacheTest {
+    private static final int COMMENT_COUNT = 5;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Long articleId;
+
+    @BeforeEach
+    void shouldSetUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Article article = new Article();
+        article.setTitle("Title");
+        article.setContent("Content");
+        articleId = articleRepository.save(article).getId();
+        for (int i = 0; i < COMMENT_COUNT; i++) {
+            addComment("Author " + i);
+        }
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void shouldCleanUp() {
+        commentRepository.deleteAllInBatch();
+        articleRepository.deleteAllInBatch();
+    }
+
+    private void addComment(String author) {
+        Comment comment = new Comment();
+        comment.setAuthor(author);
+        comment.setText("Text");
+        comment.setArticle(articleRepository.getReferenceById(articleId));
+        commentRepository.save(comment);
+    }
+
+    private int countThroughLazyCollection() {
+        return transactionTemplate.execute(status ->
+                articleRepository.findById(articleId).orElseThrow().getComments().size());
+    }
+
+    @Test
+    void shouldServeArticleAndLazyCommentsFromCache() {
+        assertEquals(COMMENT_COUNT, countThroughLazyCollection());
+        statistics.clear();
+
+        assertEquals(COMMENT_COUNT, countThroughLazyCollection());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2);
+    }
+
+    @Test
+    void shouldServeCommentsByArticleQueryFromCache() {
+        assertEquals(COMMENT_COUNT, commentRepository.findByArticleId(articleId).size());
+        statistics.clear();
+
+        assertEquals(COMMENT_COUNT, commentRepository.findByArticleId(articleId).size());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void shouldKeepOtherArticlesCachedAcrossSingleArticleWrites() {
+        Article other = new Article();
+        other.setTitle("Other");
+        other.setContent("Content");
+        Long otherId = articleService.createArticle(other).getId();
+        countThroughLazyCollection();
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+
+        Article details = new Article();
+        details.setTitle("Renamed");
+        details.setContent("Content");
+        articleService.updateArticle(otherId, details);
+
+        assertTrue(cache.containsEntity(Article.class, articleId));
+        assertTrue(cache.containsCollection(Article.class.getName() + ".comments", articleId));
+
+        articleService.deleteArticle(otherId);
+
+        assertTrue(cache.containsEntity(Article.class, articleId));
+        assertEquals(COMMENT_COUNT, countThroughLazyCollection());
+    }
+
+    @Test
+    void shouldSeeCommentsAddedThroughThisInstance() {
+        countThroughLazyCollection();
+        commentRepository.findByArticleId(articleId);
+
+        addComment("New author");
+
+        assertEquals(COMMENT_COUNT + 1, countThroughLazyCollection());
+        assertEquals(COMMENT_COUNT + 1, commentRepository.findByArticleId(articleId).size());
+    }
+
+    @Test
+    void shouldSeeCommentsAddedElsewhereOnceEvicted() {
+        countThroughLazyCollection();
+        commentRepository.findByArticleId(articleId);
+
+        // Stands in for a write made by another instance, which this session factory never sees.
+        new JdbcTemplate(dataSource).update(
+                "INSERT INTO comment (id, author, text, article_id, version) VALUES (?, ?, ?, ?, 0)",
+                1_000_000L, "Elsewhere", "Text", articleId);
+        assertEquals(COMMENT_COUNT, countThroughLazyCollection());
+
+        secondLevelCache.evictArticleComments(articleId, List.of());
+
+        assertEquals(COMMENT_COUNT + 1, countThroughLazyCollection());
+        assertEquals(COMMENT_COUNT + 1, commentRepository.findByArticleId(articleId).size());
+    }
+}
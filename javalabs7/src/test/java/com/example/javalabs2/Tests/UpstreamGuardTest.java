@@ -0,0 +1,79 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Service.UpstreamGuard;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpstreamGuardTest {
+
+    private static String fail() {
+        throw new RuntimeException("upstream down");
+    }
+
+    @Test
+    void shouldOpenCircuitAfterConsecutiveFailures() {
+        UpstreamGuard guard = new UpstreamGuard("test", 10, 100, 3, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> guard.call(UpstreamGuardTest::fail));
+        }
+
+        assertEquals(UpstreamGuard.State.OPEN, guard.getState());
+        IllegalStateException rejected = assertThrows(IllegalStateException.class, () -> guard.call(() -> "ok"));
+        assertEquals("test circuit is open", rejected.getMessage());
+    }
+
+    @Test
+    void shouldCloseCircuitAfterSuccessfulTrialCall() throws InterruptedException {
+        UpstreamGuard guard = new UpstreamGuard("test", 10, 100, 1, 50);
+        assertThrows(RuntimeException.class, () -> guard.call(UpstreamGuardTest::fail));
+        assertEquals(UpstreamGuard.State.OPEN, guard.getState());
+
+        Thread.sleep(100);
+
+        assertEquals("ok", guard.call(() -> "ok"));
+        assertEquals(UpstreamGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void shouldReopenCircuitWhenTrialCallFails() throws InterruptedException {
+        UpstreamGuard guard = new UpstreamGuard("test", 10, 100, 1, 50);
+        assertThrows(RuntimeException.class, () -> guard.call(UpstreamGuardTest::fail));
+
+        Thread.sleep(100);
+
+        assertThrows(RuntimeException.class, () -> guard.call(UpstreamGuardTest::fail));
+        assertEquals(UpstreamGuard.State.OPEN, guard.getState());
+        assertThrows(IllegalStateException.class, () -> guard.call(() -> "ok"));
+    }
+
+    @Test
+    void shouldRejectCallsBeyondBulkheadLimit() throws InterruptedException {
+        UpstreamGuard guard = new UpstreamGuard("test", 1, 10, 5, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> guard.call(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        started.await();
+
+        IllegalStateException rejected = assertThrows(IllegalStateException.class, () -> guard.call(() -> "ok"));
+        assertEquals("test bulkhead is full", rejected.getMessage());
+        assertEquals(UpstreamGuard.State.CLOSED, guard.getState());
+
+        release.countDown();
+        executor.shutdown();
+    }
+}
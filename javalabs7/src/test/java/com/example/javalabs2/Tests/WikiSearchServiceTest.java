@@ -0,0 +1,169 @@
+package com.example.javalabs2.Tests;
+
+import com.example.javalabs2.Dto.WikiResponse;
+import com.example.javalabs2.Service.RequestCounter;
+import com.example.javalabs2.Service.UpstreamGuard;
+import com.example.javalabs2.Service.WikiSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WikiSearchServiceTest {
+
+    private HttpServer server;
+    private String apiUrl;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final List<String> requestedTitles = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+
+    @BeforeEach
+    void shouldSetUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/w/api.php", exchange -> {
+            upstreamCalls.incrementAndGet();
+            String requested = exchange.getRequestURI().getQuery().replaceFirst(".*titles=", "");
+            requestedTitles.add(requested);
+            // Like Wikipedia, answer with the first letter of the title capitalized.
+            String title = Character.toUpperCase(requested.charAt(0)) + requested.substring(1);
+            String extract = title.startsWith("Missing") ? "" : "About " + title;
+            byte[] body = ("{\"query\":{\"pages\":{\"1\":{\"title\":\"" + title + "\",\"extract\":\""
+                    + extract + "\"}}}}").getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        apiUrl = "http://localhost:" + server.getAddress().getPort() + "/w/api.php?titles=";
+    }
+
+    @AfterEach
+    void shouldTearDown() {
+        server.stop(0);
+    }
+
+    private WikiSearchService service() {
+        return new WikiSearchService(new RestTemplate(), new ObjectMapper(), new RequestCounter(),
+                new UpstreamGuard("Wikipedia", 32, 1000, 5, 30_000), 100, 3600, 300);
+    }
+
+    @Test
+    void shouldCacheResultsByNormalizedTerm() {
+        WikiSearchService service = service();
+
+        WikiResponse first = service.search("Java", apiUrl);
+        WikiResponse second = service.search("  java ", apiUrl);
+
+        assertEquals("About Java", first.getContent());
+        assertSame(first, second);
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldFetchNormalizedTermWhateverTheFirstCallerSent() {
+        WikiSearchService service = service();
+
+        WikiResponse first = service.search(" RUST ", apiUrl);
+        WikiResponse second = service.search("rust", apiUrl);
+
+        assertEquals(List.of("rust"), requestedTitles);
+        assertEquals("About Rust", first.getContent());
+        assertSame(first, second);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentRequestsForSameTerm() throws Exception {
+        WikiSearchService service = service();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<WikiResponse>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return service.search("Kotlin", apiUrl);
+            }));
+        }
+        start.countDown();
+        for (Future<WikiResponse> future : futures) {
+            assertEquals("About Kotlin", future.get().getContent());
+        }
+        executor.shutdown();
+
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldShareFailedLoadWithConcurrentRequests() throws Exception {
+        WikiSearchService service = service();
+        status = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<WikiResponse>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return service.search("Groovy", apiUrl);
+            }));
+        }
+        start.countDown();
+        for (Future<WikiResponse> future : futures) {
+            assertTrue(future.get().getContent().startsWith("Error fetching data from Wikipedia: 500"));
+        }
+        executor.shutdown();
+        status = 200;
+
+        assertEquals("About Groovy", service.search("Groovy", apiUrl).getContent());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldCacheNotFoundResponses() {
+        WikiSearchService service = service();
+
+        WikiResponse first = service.search("Missing page", apiUrl);
+        service.search("missing page", apiUrl);
+
+        assertTrue(first.getContent().startsWith("No information found"));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void shouldNotCacheUpstreamErrors() {
+        WikiSearchService service = service();
+        status = 500;
+
+        WikiResponse failed = service.search("Scala", apiUrl);
+        status = 200;
+        WikiResponse recovered = service.search("Scala", apiUrl);
+
+        assertTrue(failed.getContent().startsWith("Error fetching data from Wikipedia"));
+        assertEquals("About Scala", recovered.getContent());
+        assertEquals(2, upstreamCalls.get());
+    }
+}